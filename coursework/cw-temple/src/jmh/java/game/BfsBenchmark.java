@@ -0,0 +1,102 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares a sequential breadth-first search with ParallelBfs on 1, 2, 4 and 8
+ * threads, computing hop counts from one node to all others. Caverns are mazes
+ * with small frontiers, which ParallelBfs mostly searches on one thread; the
+ * random graph (about 8 arcs per node) has the wide frontiers that it splits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BfsBenchmark {
+  /** "cavern": a 1000 x 1000 escape cavern; "random": 1M nodes joined at random. */
+  @Param({"cavern", "random"})
+  public String shape;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  @Param({"1"})
+  public long seed;
+
+  private CompactGraph graph;
+  private ParallelBfs bfs;
+  private int root;
+  private ForkJoinPool pool;
+
+  /**
+   * Generate the graph and start the pool once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random rand = new Random(seed);
+    if (shape.equals("cavern")) {
+      Cavern cavern = Cavern.digEscapeCavern(1000, 1000, 500, 500, rand,
+                                             Cavern.Generation.FAST);
+      graph = cavern.getEntrance().getGraph();
+      root = cavern.getEntrance().getOrdinal();
+    } else {
+      int n = 1_000_000;
+      Node[] nodes = new Node[n];
+      for (int i = 0; i < n; i++) {
+        nodes[i] = new Node(i, new Tile(i / 1000, i % 1000, 0, Tile.Type.FLOOR));
+      }
+      CompactGraph.Builder builder = new CompactGraph.Builder(nodes);
+      for (int e = 0; e < 4 * n; e++) {
+        builder.addEdge(rand.nextInt(n), rand.nextInt(n), 1);
+      }
+      graph = builder.build();
+      root = 0;
+    }
+    bfs = graph.parallelBfs();
+    pool = new ForkJoinPool(threads);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public int[] sequential() {
+    int[] hops = new int[graph.size()];
+    Arrays.fill(hops, -1);
+    int[] queue = new int[graph.size()];
+    int tail = 0;
+    queue[tail++] = root;
+    hops[root] = 0;
+    for (int head = 0; head < tail; head++) {
+      int u = queue[head];
+      for (int k = graph.firstArc(u); k < graph.endArc(u); k++) {
+        int v = graph.target(k);
+        if (hops[v] < 0) {
+          hops[v] = hops[u] + 1;
+          queue[tail++] = v;
+        }
+      }
+    }
+    return hops;
+  }
+
+  @Benchmark
+  public int[] parallel() {
+    return bfs.hops(root, pool);
+  }
+}
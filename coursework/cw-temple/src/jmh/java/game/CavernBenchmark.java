@@ -0,0 +1,81 @@
+package game;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures generating caverns and converting them to and from the text format of
+ * Cavern.serialize() and the binary format of CavernFile (in memory, so that disks
+ * do not matter). Explore caverns are generated by rejection sampling, so their
+ * time varies with the seed as well as the size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CavernBenchmark {
+  /** Side of the (square) grid: 25 is about the size of a normal game. */
+  @Param({"25", "100", "316"})
+  public int side;
+
+  @Param({"1", "2"})
+  public long seed;
+
+  private Cavern cavern;
+  private Tile orb;
+  private List<String> text;
+  private ByteBuffer binary;
+
+  /**
+   * Generate the caverns and their files once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    Random rand = new Random(seed);
+    orb = Cavern.digExploreCavern(side, side, rand).getTarget().getTile();
+    cavern = Cavern.digEscapeCavern(side, side, orb.getRow(), orb.getColumn(), rand);
+    text = cavern.serialize();
+    binary = CavernFile.encode(cavern);
+  }
+
+  @Benchmark
+  public Cavern digExploreCavern() {
+    return Cavern.digExploreCavern(side, side, new Random(seed));
+  }
+
+  @Benchmark
+  public Cavern digEscapeCavern() {
+    return Cavern.digEscapeCavern(side, side, orb.getRow(), orb.getColumn(), new Random(seed));
+  }
+
+  @Benchmark
+  public List<String> serialize() {
+    return cavern.serialize();
+  }
+
+  @Benchmark
+  public Cavern deserialize() {
+    return Cavern.deserialize(text);
+  }
+
+  @Benchmark
+  public ByteBuffer encode() throws Exception {
+    return CavernFile.encode(cavern);
+  }
+
+  @Benchmark
+  public Cavern decode() throws Exception {
+    return CavernFile.decode(binary.duplicate(), "benchmark");
+  }
+}
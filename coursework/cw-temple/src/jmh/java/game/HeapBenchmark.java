@@ -0,0 +1,115 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares InternalMinHeap with IndexedMinHeap when running a full Dijkstra
+ * over a generated escape cavern (random edge weights), from the orb to the entrance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HeapBenchmark {
+  /** Side of the (square) grid: 100, 316 and 1000 give 10k, 100k and 1M tiles. */
+  @Param({"100", "316", "1000"})
+  public int side;
+
+  @Param({"1"})
+  public long seed;
+
+  private CompactGraph graph;
+  private int start;
+  private int target;
+
+  /**
+   * Generate the cavern once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random rand = new Random(seed);
+    Tile orb = Cavern.digExploreCavern(side, side, rand).getTarget().getTile();
+    Cavern cavern = Cavern.digEscapeCavern(side, side, orb.getRow(), orb.getColumn(), rand);
+    graph = cavern.getEntrance().getGraph();
+    start = cavern.getNodeAt(orb.getRow(), orb.getColumn()).getOrdinal();
+    target = cavern.getTarget().getOrdinal();
+  }
+
+  @Benchmark
+  public int internalMinHeap() {
+    InternalMinHeap<Node> frontier = new InternalMinHeap<>();
+    int[] dist = newDistances();
+    dist[start] = 0;
+    frontier.add(graph.node(start), 0);
+    while (!frontier.isEmpty()) {
+      int f = frontier.poll().getOrdinal();
+      if (f == target) {
+        return dist[f];
+      }
+      for (int k = graph.firstArc(f); k < graph.endArc(f); k++) {
+        int w = graph.target(k);
+        int d = dist[f] + graph.weight(k);
+        if (dist[w] < 0) {
+          dist[w] = d;
+          frontier.add(graph.node(w), d);
+        } else if (d < dist[w]) {
+          dist[w] = d;
+          frontier.changePriority(graph.node(w), d);
+        }
+      }
+    }
+    return -1;
+  }
+
+  @Benchmark
+  public int binaryIndexedMinHeap() {
+    return indexed(2);
+  }
+
+  @Benchmark
+  public int quaternaryIndexedMinHeap() {
+    return indexed(4);
+  }
+
+  /**
+   * Return the distance from start to target using an IndexedMinHeap of arity d.
+   */
+  private int indexed(int d) {
+    IndexedMinHeap frontier = new IndexedMinHeap(graph.size(), d);
+    int[] dist = newDistances();
+    dist[start] = 0;
+    frontier.add(start, 0);
+    while (!frontier.isEmpty()) {
+      int f = frontier.poll();
+      if (f == target) {
+        return dist[f];
+      }
+      for (int k = graph.firstArc(f); k < graph.endArc(f); k++) {
+        int w = graph.target(k);
+        int dw = dist[f] + graph.weight(k);
+        if (dist[w] < 0 || dw < dist[w]) {
+          dist[w] = dw;
+          frontier.addOrDecrease(w, dw);
+        }
+      }
+    }
+    return -1;
+  }
+
+  private int[] newDistances() {
+    int[] dist = new int[graph.size()];
+    Arrays.fill(dist, -1);
+    return dist;
+  }
+}
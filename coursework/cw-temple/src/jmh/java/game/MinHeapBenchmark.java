@@ -0,0 +1,91 @@
+package game;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the operations of InternalMinHeap on their own: adding size elements
+ * with random priorities and then polling them all, and changing the priorities of
+ * the elements of a full heap. Elements are boxed once per trial, so only the heap
+ * is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MinHeapBenchmark {
+  /** The number of elements in the heap. */
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Param({"1"})
+  public long seed;
+
+  private Integer[] elements;
+  private double[] priorities;
+  private double[] newPriorities;
+  private InternalMinHeap<Integer> full;
+  /** True iff full has newPriorities rather than priorities. */
+  private boolean flipped;
+
+  /**
+   * Draw the priorities once per trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random rand = new Random(seed);
+    elements = new Integer[size];
+    priorities = new double[size];
+    newPriorities = new double[size];
+    for (int i = 0; i < size; i++) {
+      elements[i] = i;
+      priorities[i] = rand.nextInt(size);
+      newPriorities[i] = rand.nextInt(size);
+    }
+  }
+
+  /**
+   * Fill the heap whose priorities are changed, once per iteration.
+   */
+  @Setup(Level.Iteration)
+  public void fill() {
+    full = new InternalMinHeap<>();
+    for (int i = 0; i < size; i++) {
+      full.add(elements[i], priorities[i]);
+    }
+    flipped = false;
+  }
+
+  @Benchmark
+  public int addThenPollAll() {
+    InternalMinHeap<Integer> heap = new InternalMinHeap<>();
+    for (int i = 0; i < size; i++) {
+      heap.add(elements[i], priorities[i]);
+    }
+    int sum = 0;
+    while (!heap.isEmpty()) {
+      sum += heap.poll();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public InternalMinHeap<Integer> changePriorityAll() {
+    // Alternate between the two sets of priorities, so that every call changes them.
+    flipped = !flipped;
+    double[] p = (flipped ? newPriorities : priorities);
+    for (int i = 0; i < size; i++) {
+      full.changePriority(elements[i], p[i]);
+    }
+    return full;
+  }
+}
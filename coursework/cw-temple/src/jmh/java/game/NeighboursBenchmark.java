@@ -0,0 +1,60 @@
+package game;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures GameState.getNeighbours, as an explorer calls it, in the game of each
+ * seed. Each call is followed by a move to one of the neighbours found (the next
+ * one round, so that the walk does not just go back and forth), so that calls are
+ * made all over the cavern; both forms of getNeighbours pay for the same moves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NeighboursBenchmark {
+  @Param({"1", "2", "3"})
+  public long seed;
+
+  private GameState state;
+  private final NodeStatus[] buffer = new NodeStatus[ExplorationState.MAX_NEIGHBOURS];
+  private int turn;
+
+  /**
+   * Start a new game once per iteration, at the entrance.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    state = GameState.newHeadlessGame(seed);
+  }
+
+  @Benchmark
+  public int collection() {
+    Collection<NodeStatus> neighbours = state.getNeighbours();
+    int i = turn++ % neighbours.size();
+    for (NodeStatus ns : neighbours) {
+      if (i-- == 0) {
+        state.moveTo(ns.getId());
+        break;
+      }
+    }
+    return neighbours.size();
+  }
+
+  @Benchmark
+  public int buffer() {
+    int count = state.getNeighbours(buffer);
+    state.moveTo(buffer[turn++ % count].getId());
+    return count;
+  }
+}
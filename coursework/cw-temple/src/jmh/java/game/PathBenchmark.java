@@ -0,0 +1,63 @@
+package game;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures Cavern.minPathLengthToTarget on an escape cavern. Its first call builds
+ * the target's shortest-path tree (cold), which a game pays for once per cavern, for
+ * the distance from where the orb was; later calls look distances up in the tree
+ * (warm), here from every node in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathBenchmark {
+  /** Side of the (square) grid: 25 is about the size of a normal game. */
+  @Param({"25", "100", "316", "1000"})
+  public int side;
+
+  @Param({"1", "2"})
+  public long seed;
+
+  private Cavern cavern;
+  private Node start;
+  private Node[] nodes;
+  private int next;
+
+  /**
+   * Generate the cavern once per trial, and build its tree for the warm calls.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random rand = new Random(seed);
+    Tile orb = Cavern.digExploreCavern(side, side, rand).getTarget().getTile();
+    cavern = Cavern.digEscapeCavern(side, side, orb.getRow(), orb.getColumn(), rand);
+    start = cavern.getNodeAt(orb.getRow(), orb.getColumn());
+    nodes = cavern.getGraph().toArray(new Node[0]);
+    cavern.minPathLengthToTarget(start);
+  }
+
+  @Benchmark
+  public int cold() {
+    CompactGraph graph = cavern.getAdjacency();
+    ShortestPathTree tree = new ShortestPathTree(graph, cavern.getTarget().getOrdinal());
+    return tree.distanceTo(start);
+  }
+
+  @Benchmark
+  public int warm() {
+    next = (next + 1 < nodes.length ? next + 1 : 0);
+    return cavern.minPathLengthToTarget(nodes[next]);
+  }
+}
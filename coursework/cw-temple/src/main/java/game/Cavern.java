@@ -1,25 +1,28 @@
 package game;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * An instance represents a Cavern that the explorer can navigate through.
  * The cavern is set up as a grid of Tile objects with a weighted graph of all non-floor tiles.
  * There is an entrance to the cavern and a target location (which may also be the entrance).
+ * Only the open tiles are stored as nodes: walls are implicit in a CellIndex, and
+ * getTileAt and getNodeAt make a wall's tile and node when they are asked for, so a
+ * cavern of millions of cells holds no wall objects at all.
  */
 public class Cavern {
 
@@ -28,73 +31,94 @@ public class Cavern {
   public static final int TASTY_VALUE = 5000;
   private static final double DENSITY = 0.6;
   private static final double GOLD_PROBABILITY = 0.33;
+  /** The number of shortest-path trees (other than the target's) kept by a cavern. */
+  private static final int CACHED_TREES = 8;
   private final int rows;
   private final int cols;
-  private final Set<Node> graph;
+  private final CompactGraph adjacency;
   private final Node entrance;
   private final Node target;
-  private final Node[][] tiles;
+  /** Which cells are open, and the ordinal of each open cell. */
+  private final CellIndex cells;
+  /** The id of the first wall in row-major order; the k-th wall has id firstWallId + k. */
+  private final long firstWallId;
+  /** The shortest-path tree rooted at target, or null if not computed yet. */
+  private volatile ShortestPathTree targetTree;
+  /** The status of each node by ordinal (see getNodeStatuses()), or null if not computed yet. */
+  private volatile NodeStatus[] statuses;
+  /** Recently used shortest-path trees, keyed by the ordinal of their root. */
+  private final Map<Integer, ShortestPathTree> trees = new LinkedHashMap<Integer, ShortestPathTree>(
+      CACHED_TREES, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+      return size() > CACHED_TREES;
+    }
+  };
 
   /**
-   * Constructor: an instance of size (rws, cls) .
-   * Use rand as a source of randomness for the cavern generation.
-   * Use {@code edgeWeightGenerator} and {@code goldGenerator} to generate edge weights and 
-   * gold values.
-   * Precondition: {@code targetType} must be either {@code Tile.Type.ORB} or 
+   * Constructor: the cavern dug by dig.
+   * Use {@code edgeWeightGenerator} to generate edge weights, and take node ids
+   * from {@code freshIds}. The target is the node dug targetIdx-th, whose type
+   * becomes {@code targetType}.
+   * Precondition: {@code targetType} must be either {@code Tile.Type.ORB} or
+   * {@code Tile.Type.ENTRANCE}, and targetIdx is 0 (the entrance) iff it is
    * {@code Tile.Type.ENTRANCE}.
    */
-  private Cavern(int rws,
-                 int cls,
-                 Random rand,
+  private Cavern(Dig dig,
+                 int targetIdx,
+                 Tile.Type targetType,
                  Supplier<Integer> edgeWeightGenerator,
-                 Supplier<Integer> goldGenerator,
-                 Tile.Type targetType) {
-    rows = rws;
-    cols = cls;
-
-    graph = generateGraph(rand, targetType, goldGenerator);
-
-    entrance = graph.stream().filter((n) -> 
-      n.getTile().getType() == Tile.Type.ENTRANCE).findAny().get();
-
-    target = graph.stream().filter((n) -> 
-      n.getTile().getType() == targetType).findAny().get();
-
-    // Set tiles for the floor and then add walls wherever floor is missing.
-    tiles = new Node[rows][cols];
-    for (Node node : graph) {
-      Tile t = node.getTile();
-      tiles[t.getRow()][t.getColumn()] = node;
-    }
-
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < cols; j++) {
-        if (tiles[i][j] == null) {
-          tiles[i][j] = new Node(new Tile(i, j, 0, Tile.Type.WALL));
-        }
+                 AtomicLong freshIds) {
+    rows = dig.rows;
+    cols = dig.cols;
+
+    List<Node> open = new ArrayList<>(dig.size);
+    for (int i = 0; i < dig.size; i++) {
+      Tile.Type type = (i == 0 ? Tile.Type.ENTRANCE : Tile.Type.FLOOR);
+      if (i == targetIdx) {
+        type = targetType;
       }
+      int cell = dig.cells[i];
+      open.add(new Node(freshIds.getAndIncrement(),
+          new Tile(cell / cols, cell % cols, dig.gold[i], type)));
     }
-    createEdges(tiles, edgeWeightGenerator);
+    entrance = open.get(0);
+    target = open.get(targetIdx);
+
+    // The walls take the ids after the floor's, in row-major order.
+    cells = new CellIndex(rows, cols, dig.cells, dig.size);
+    firstWallId = freshIds.getAndAdd((long) rows * cols - dig.size);
+    adjacency = createEdges(open, edgeWeightGenerator);
   }
 
   /**
-   * Constructor: an instance using givenGraph, givenTiles, and target trgt.
+   * Constructor: an instance of size (rws, cls) over the open nodes of givenGraph,
+   * with target trgt, whose walls take ids from firstWall on in row-major order.
    * Preconditions:
-   * 1. {@code givenGraph} and {@code givenTiles} represent the same graph
-   * (i.e. {@code givenGraph} contains all non-floor nodes in
-   * {@code givenTiles} and edges are along the grid).
+   * 1. {@code givenGraph} contains exactly the open nodes of the grid, and its
+   * edges are along the grid.
    * 2. {@code trgt} is a node in {@code givenGraph}.
    */
-  private Cavern(Set<Node> givenGraph, Node[][] givenTiles, Node trgt) {
-    tiles = givenTiles;
-    rows = tiles.length;
-    cols = tiles[0].length;
-
-    graph = Collections.unmodifiableSet(givenGraph);
-
-    entrance = graph.stream().filter((n) -> 
-      n.getTile().getType() == Tile.Type.ENTRANCE).findAny().get();
+  Cavern(int rws, int cls, CompactGraph givenGraph, long firstWall, Node trgt) {
+    rows = rws;
+    cols = cls;
+    adjacency = givenGraph;
+
+    int[] cellOf = new int[adjacency.size()];
+    Node entranceNode = null;
+    for (int o = 0; o < cellOf.length; o++) {
+      Tile t = adjacency.node(o).getTile();
+      cellOf[o] = t.getRow() * cols + t.getColumn();
+      if (t.getType() == Tile.Type.ENTRANCE) {
+        entranceNode = adjacency.node(o);
+      }
+    }
+    cells = new CellIndex(rows, cols, cellOf, cellOf.length);
+    firstWallId = firstWall;
 
+    entrance = Objects.requireNonNull(entranceNode, "The cavern has no entrance");
     target = trgt;
   }
 
@@ -104,13 +128,26 @@ public class Cavern {
    * Use rand as a source of randomness for the cavern generation.
    */
   public static Cavern digExploreCavern(int rows, int cols, Random rand) {
-    int minOrbDist = minOrbDistance(rows, cols);
+    return digExploreCavern(rows, cols, rand, new AtomicLong());
+  }
 
-    Cavern cavern = new Cavern(rows, cols, rand, () -> 1, () -> 0, Tile.Type.ORB);
-    while (cavern.minPathLengthToTarget(cavern.getEntrance()) < minOrbDist) {
-      cavern = new Cavern(rows, cols, rand, () -> 1, () -> 0, Tile.Type.ORB);
+  /**
+   * As digExploreCavern(rows, cols, rand), but take node ids from freshIds.
+   * A candidate cavern whose orb is too close to the entrance is rejected before
+   * any of its nodes or edges are made. It still takes an id for every cell, as it
+   * did when candidates were built in full, so a seed gives the same cavern as ever.
+   */
+  static Cavern digExploreCavern(int rows, int cols, Random rand, AtomicLong freshIds) {
+    int minOrbDist = minOrbDistance(rows, cols);
+    while (true) {
+      Dig dig = Dig.dig(rows, cols, rand, () -> 0, Dig.NONE);
+      // Grab a random tile that's not the entrance and make it the orb.
+      int targetIdx = rand.nextInt(dig.size - 1) + 1;
+      if (dig.hopsFromEntrance(dig.cells[targetIdx], minOrbDist) >= minOrbDist) {
+        return new Cavern(dig, targetIdx, Tile.Type.ORB, () -> 1, freshIds);
+      }
+      freshIds.addAndGet((long) rows * cols);
     }
-    return cavern;
   }
 
   /**
@@ -127,15 +164,52 @@ public class Cavern {
    */
   public static Cavern digEscapeCavern(int rows, int cols, int currentRow, 
                                        int currentCol, Random rand) {
+    return digEscapeCavern(rows, cols, currentRow, currentCol, rand, new AtomicLong());
+  }
+
+  /**
+   * As digEscapeCavern(rows, cols, currentRow, currentCol, rand), but use generation
+   * to deal with candidate caverns in which (currentRow, currentCol) is not floor.
+   */
+  public static Cavern digEscapeCavern(int rows, int cols, int currentRow, int currentCol,
+                                       Random rand, Generation generation) {
+    return digEscapeCavern(rows, cols, currentRow, currentCol, rand, generation,
+                           new AtomicLong());
+  }
+
+  /**
+   * As digEscapeCavern(rows, cols, currentRow, currentCol, rand),
+   * but take node ids from freshIds.
+   */
+  static Cavern digEscapeCavern(int rows, int cols, int currentRow,
+                                int currentCol, Random rand, AtomicLong freshIds) {
+    return digEscapeCavern(rows, cols, currentRow, currentCol, rand,
+                           Generation.REPRODUCIBLE, freshIds);
+  }
+
+  /**
+   * As digEscapeCavern(rows, cols, currentRow, currentCol, rand, generation),
+   * but take node ids from freshIds.
+   */
+  static Cavern digEscapeCavern(int rows, int cols, int currentRow, int currentCol,
+                                Random rand, Generation generation, AtomicLong freshIds) {
     Supplier<Integer> edgeWeightGen = () -> rand.nextInt(MAX_EDGE_WEIGHT) + 1;
     Supplier<Integer> goldGen = () -> Cavern.generateGoldValue(rand);
-    Cavern potentialCavern = 
-        new Cavern(rows, cols, rand, edgeWeightGen, goldGen, Tile.Type.ENTRANCE);
-    while (potentialCavern.getTileAt(currentRow, currentCol).getType() != Tile.Type.FLOOR) {
-      potentialCavern = 
-        new Cavern(rows, cols, rand, edgeWeightGen, goldGen, Tile.Type.ENTRANCE);
+    int required = currentRow * cols + currentCol;
+    boolean fast = (generation == Generation.FAST);
+    while (true) {
+      Dig dig = Dig.dig(rows, cols, rand, goldGen, fast ? required : Dig.NONE);
+      if (dig != null && dig.isFloor(required)) {
+        return new Cavern(dig, 0, Tile.Type.ENTRANCE, edgeWeightGen, freshIds);
+      }
+      if (!fast) {
+        // Use up the randomness and ids that building the whole candidate used to.
+        for (int e = dig.edgeCount(); e > 0; e--) {
+          edgeWeightGen.get();
+        }
+        freshIds.addAndGet((long) rows * cols);
+      }
     }
-    return potentialCavern;
   }
 
   /**
@@ -165,7 +239,9 @@ public class Cavern {
     int cols = Integer.parseInt(dimensions[1]);
     final long targetId = Long.parseLong(infoParts[1].split(":")[1]);
 
-    Map<Long, Node> idToNode = new HashMap<>();
+    Map<Long, Integer> idToOrdinal = new HashMap<>();
+    List<Node> nodes = new ArrayList<>();
+    long freshId = 0;
     for (String nodeStr : nodeStrList) {
       if (!nodeStr.equals(extraInfo)) {
 
@@ -178,11 +254,13 @@ public class Cavern {
                                      Integer.parseInt(splitInfo[2]),
                                      Integer.parseInt(splitInfo[3]),
                                      Tile.Type.valueOf(splitInfo[4])));
-        idToNode.put(nodeId, n);
+        freshId = Math.max(freshId, nodeId + 1);
+        idToOrdinal.put(nodeId, nodes.size());
+        nodes.add(n);
       }
     }
 
-    Node[][] tiles = new Node[rows][cols];
+    CompactGraph.Builder builder = new CompactGraph.Builder(nodes.toArray(new Node[0]));
     for (String nodeStr : nodeStrList) {
       // The first line is not a node, it's metadata, so skip it.
       if (nodeStr.equals(extraInfo)) {
@@ -192,37 +270,32 @@ public class Cavern {
       String[] nodeAndEdgeInfo = nodeStr.split("=");
       long nodeId = Long.parseLong(nodeAndEdgeInfo[0].split(",")[0]);
 
-      Node n = idToNode.get(nodeId);
-      tiles[n.getTile().getRow()][n.getTile().getColumn()] = n;
+      int ordinal = idToOrdinal.get(nodeId);
       for (String edgeStr : nodeAndEdgeInfo[1].split(",")) {
         String[] idAndWeight = edgeStr.split("-");
         long otherId = Long.parseLong(idAndWeight[0]);
         int weight = Integer.parseInt(idAndWeight[1]);
-        n.addEdge(new Edge(n, idToNode.get(otherId), weight));
+        builder.addArc(ordinal, idToOrdinal.get(otherId), weight);
       }
     }
 
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < cols; j++) {
-        if (tiles[i][j] == null) {
-          tiles[i][j] = new Node(new Tile(i, j, 0, Tile.Type.WALL));
-        }
-      }
-    }
-    return new Cavern(new HashSet<>(idToNode.values()), tiles, idToNode.get(targetId));
+    // Walls get the ids after the largest node id, in row-major order.
+    return new Cavern(rows, cols, builder.build(), freshId,
+                      nodes.get(idToOrdinal.get(targetId)));
   }
 
   /**
-   * Add edges to the grid of nodes, tiles, between adjacent non-wall tiles,
-   * using edgeWeightGenerator to get edge weights.
-   * Precondition: all elements of {@code tiles} are non-null and
-   * the grid of nodes has no edges.
+   * Return the graph over the open nodes, open, with edges between adjacent
+   * open cells of this cavern, using edgeWeightGenerator to get edge weights.
+   * The node open.get(i) gets ordinal i in the graph.
+   * Precondition: {@code cells} is set, and open.get(i) is at the cell of ordinal i.
    */
-  private void createEdges(Node[][] tiles, Supplier<Integer> edgeWeightGenerator) {
-    for (int i = 0; i < tiles.length - 1; i++) {
-      for (int j = 0; j < tiles[i].length - 1; j++) {
-        Node node = tiles[i][j];
-        if (node.getTile().getType() == Tile.Type.WALL) {
+  private CompactGraph createEdges(List<Node> open, Supplier<Integer> edgeWeightGenerator) {
+    CompactGraph.Builder builder = new CompactGraph.Builder(open.toArray(new Node[0]));
+    for (int i = 0; i < rows - 1; i++) {
+      for (int j = 0; j < cols - 1; j++) {
+        final int from = cells.ordinalAt(i, j);
+        if (from == CellIndex.WALL) {
           continue;
         }
 
@@ -230,124 +303,19 @@ public class Cavern {
         Stream.of(Direction.SOUTH, Direction.EAST)
             .map(Direction::getPoint)
             .map(p::add)
-            .map((q) -> tiles[q.row][q.col])
-            .filter((m) -> m.getTile().getType() != Tile.Type.WALL)
-            .forEach((m) -> {
-              int weight = edgeWeightGenerator.get();
-              node.addEdge(new Edge(node, m, weight));
-              m.addEdge(new Edge(m, node, weight));
-            });
+            .filter((q) -> cells.ordinalAt(q.row, q.col) != CellIndex.WALL)
+            .forEach((q) -> builder.addEdge(from, cells.ordinalAt(q.row, q.col),
+                                             edgeWeightGenerator.get()));
       }
     }
-  }
-
-  /**
-   * Return true iff p is on the grid.
-   */
-  private boolean isValid(Point p) {
-    return p.row > 0 
-      && p.row < rows - 1 
-      && p.col > 0 
-      && p.col < cols - 1;
-  }
-
-  /**
-   * Generate a new random graph that fits within the grid and return the set of nodes.
-   * Use goldGenerator to generate gold.
-   * If targetType is not ENTRANCE, make the target be some random node that is
-   * not the entrance.
-   */
-  private Set<Node> generateGraph(Random rand,
-                                  Tile.Type targetType,
-                                  Supplier<Integer> goldGenerator) {
-    List<Node> nodes = new ArrayList<>();
-
-    Set<Point> pointsSeen = new HashSet<>();
-    Set<Point> openPoints = new HashSet<>();
-    final Queue<Node> frontier = new ArrayDeque<>();
-
-    Point entrancePoint = getEntrancePoint(rand);
-    Node entrance = new Node(new Tile(entrancePoint.row, entrancePoint.col, 0, Tile.Type.ENTRANCE));
-    nodes.add(entrance);
-
-    pointsSeen.add(entrancePoint);
-    openPoints.add(entrancePoint);
-    frontier.add(entrance);
-    while (!frontier.isEmpty()) {
-      Node node = frontier.remove();
-      Point p = new Point(node.getTile().getRow(), node.getTile().getColumn());
-
-      // We want to make sure there's a way out if we can get one.
-      // This will prevent stupid degenerate graphs.
-      int existingExits = 0;
-      List<Point> newExits = new ArrayList<>();
-      for (Direction dir : Direction.values()) {
-        Point newPt = dir.getPoint().add(p);
-        if (isValid(newPt)) {
-          if (openPoints.contains(newPt)) {
-            existingExits++;
-          } else if (pointsSeen.add(newPt)) {
-            newExits.add(newPt);
-          }
-        }
-      }
-
-      int numberOfExits = newExits.size();
-      if (numberOfExits > 0) {
-        double modifiedDensity;
-        Point forcedExit;
-        // Modify the density function so that the expected number of open exits
-        // is the same even though we're forcing something to be open.
-        if (existingExits < 2) {
-          modifiedDensity = 
-            (numberOfExits == 1 ? 0.0 : (numberOfExits * DENSITY - 1) / (numberOfExits - 1));
-          forcedExit = newExits.get(rand.nextInt(newExits.size()));
-        } else {
-          modifiedDensity = DENSITY;
-          forcedExit = null;
-        }
-        newExits.stream()
-          .filter((q) -> q.equals(forcedExit) || rand.nextDouble() < modifiedDensity)
-          .peek(openPoints::add)
-          .map((q) -> new Node(new Tile(q.row, q.col, goldGenerator.get(), Tile.Type.FLOOR)))
-          .peek(frontier::add)
-          .forEach(nodes::add);
-      }
-    }
-
-    if (targetType != Tile.Type.ENTRANCE) {
-      // Grab a random tile that's not the entrance and make it the target.
-      int targetIdx = rand.nextInt(nodes.size() - 1) + 1;
-      nodes.get(targetIdx).getTile().setType(targetType);
-    }
-
-    return Collections.unmodifiableSet(new HashSet<>(nodes));
-  }
-
-  /**
-   * Randomly determine and return the entrance to the cavern
-   * (the only non-wall tile along an edge of the grid).
-   */
-  private Point getEntrancePoint(Random rand) {
-    switch (rand.nextInt(4)) {
-      case 0: // North wall
-        return new Point(rand.nextInt(rows - 2) + 1, 0);
-      case 1: // South wall
-        return new Point(rand.nextInt(rows - 2) + 1, cols - 1);
-      case 2: // West wall
-        return new Point(0, rand.nextInt(cols - 2) + 1);
-      case 3: // East wall
-        return new Point(rows - 1, rand.nextInt(cols - 2) + 1);
-      default:
-        throw new IllegalStateException("Unexpected random value!");
-    }
+    return builder.build();
   }
 
   /**
    * Return the number of open floor tiles in this cavern (this is the size of the graph).
    */
   public int numOpenTiles() {
-    return graph.size();
+    return adjacency.size();
   }
 
   /**
@@ -369,7 +337,14 @@ public class Cavern {
    * This is an umodifiable view of the graph.
    */
   public Set<Node> getGraph() {
-    return graph;
+    return adjacency.nodes();
+  }
+
+  /**
+   * Return the adjacency structure of the open nodes of this cavern.
+   */
+  CompactGraph getAdjacency() {
+    return adjacency;
   }
 
   /**
@@ -391,7 +366,9 @@ public class Cavern {
    * Precondition: ({@code r}, {@code c}) must be in the grid.
    */
   public Tile getTileAt(int r, int c) {
-    return tiles[r][c].getTile();
+    int o = cells.ordinalAt(r, c);
+    return (o == CellIndex.WALL ? new Tile(r, c, 0, Tile.Type.WALL)
+        : adjacency.node(o).getTile());
   }
 
   /**
@@ -399,47 +376,122 @@ public class Cavern {
    * Precondition: ({@code r}, {@code c}) must be in the grid.
    */
   public Node getNodeAt(int r, int c) {
-    return tiles[r][c];
+    int o = cells.ordinalAt(r, c);
+    if (o == CellIndex.WALL) {
+      // Nodes are equal iff their ids are, so this is the same wall every time.
+      return new Node(firstWallId + cells.wallsBefore(r, c), new Tile(r, c, 0, Tile.Type.WALL));
+    }
+    return adjacency.node(o);
   }
 
   /**
-   * Package-private implementation of Dijkstra's algorithm that returns
-   * only the minimum distance between the given node and the target node for
-   * this cavern (no path).
-   * Precondition: {@code start} must be a node in this cavern.
+   * Return the status of every node of this cavern, indexed by ordinal: its id and
+   * its distance along the grid (NOT the graph) to the target. The array is computed
+   * on the first call and then reused, and must not be changed.
    */
-  int minPathLengthToTarget(Node start) {
+  NodeStatus[] getNodeStatuses() {
+    NodeStatus[] s = statuses;
+    if (s == null) {
+      Tile goal = target.getTile();
+      s = new NodeStatus[adjacency.size()];
+      for (int o = 0; o < s.length; o++) {
+        Node n = adjacency.node(o);
+        s[o] = new NodeStatus(n.getId(),
+            Math.abs(n.getTile().getRow() - goal.getRow())
+            + Math.abs(n.getTile().getColumn() - goal.getColumn()));
+      }
+      statuses = s;
+    }
+    return s;
+  }
+
+  /**
+   * Return the shortest-path tree rooted at the target of this cavern.
+   * It gives the distance from every node to the target, and the next node on a
+   * shortest path there. The tree is computed on the first call and then reused.
+   */
+  public ShortestPathTree getTargetTree() {
+    ShortestPathTree tree = targetTree;
+    if (tree == null) {
+      tree = new ShortestPathTree(adjacency, target.getOrdinal());
+      targetTree = tree;
+    }
+    return tree;
+  }
+
+  /**
+   * Return the shortest-path tree rooted at root, which gives the distance from root
+   * to every node of this cavern. The last few trees asked for are cached.
+   * Throw an IllegalArgumentException if root is not a node in this cavern.
+   */
+  public ShortestPathTree getShortestPathTree(Node root) {
+    if (root.getGraph() != adjacency) {
+      throw new IllegalArgumentException("getShortestPathTree: root must be in this cavern");
+    }
+    if (root.equals(target)) {
+      return getTargetTree();
+    }
+    synchronized (trees) {
+      return trees.computeIfAbsent(root.getOrdinal(),
+          (o) -> new ShortestPathTree(adjacency, o));
+    }
+  }
 
-    InternalMinHeap<Node> frontier = new InternalMinHeap<>();
+  /**
+   * As getHopCounts(root, pool), using the common ForkJoinPool.
+   */
+  public HopCounts getHopCounts(Node root) {
+    return getHopCounts(root, ForkJoinPool.commonPool());
+  }
 
-    /** Contains an entry for each node in the Settled and Frontier sets. */
-    Map<Long, Integer> pathWeights = new HashMap<>();
+  /**
+   * Return the number of hops from root to every node of this cavern, found by a
+   * breadth-first search on the threads of pool (see ParallelBfs). Unlike
+   * shortest-path trees, hop counts are not cached.
+   * Throw an IllegalArgumentException if root is not a node in this cavern.
+   */
+  public HopCounts getHopCounts(Node root, ForkJoinPool pool) {
+    if (root.getGraph() != adjacency) {
+      throw new IllegalArgumentException("getHopCounts: root must be in this cavern");
+    }
+    return new HopCounts(adjacency, root.getOrdinal(),
+                         adjacency.parallelBfs().hops(root.getOrdinal(), pool));
+  }
 
-    pathWeights.put(start.getId(), 0);
-    frontier.add(start, 0);
-    /// invariant: as in lecture notes
-    while (!frontier.isEmpty()) {
-      Node f = frontier.poll();
-      if (f.equals(target)) {
-        return pathWeights.get(f.getId());
-      }
+  /**
+   * Return a shortest path from start to end found with the given search strategy,
+   * or null if end cannot be reached from start.
+   * Throw an IllegalArgumentException if start or end is not a node in this cavern.
+   */
+  public ShortestPath shortestPath(Node start, Node end, PathSearch search) {
+    if (start.getGraph() != adjacency || end.getGraph() != adjacency) {
+      throw new IllegalArgumentException("shortestPath: nodes must be in this cavern");
+    }
+    return search.search(adjacency, start.getOrdinal(), end.getOrdinal());
+  }
 
-      int numberOfWeight = pathWeights.get(f.getId());
-
-      for (Edge e : f.getExits()) {
-        Node w = e.getOther(f);
-        int weightThroughN = numberOfWeight + e.length();
-        Integer existingWeight = pathWeights.get(w.getId());
-        if (existingWeight == null) {
-          pathWeights.put(w.getId(), weightThroughN);
-          frontier.add(w, weightThroughN);
-        } else if (weightThroughN < existingWeight) {
-          pathWeights.put(w.getId(), weightThroughN);
-          frontier.changePriority(w, weightThroughN);
-        }
-      }
+  /**
+   * Return a shortest path from start to the target of this cavern found with the
+   * given search strategy, or null if the target cannot be reached from start.
+   * Throw an IllegalArgumentException if start is not a node in this cavern.
+   */
+  public ShortestPath shortestPathToTarget(Node start, PathSearch search) {
+    return shortestPath(start, target, search);
+  }
+
+  /**
+   * Package-private method that returns only the minimum distance between the
+   * given node and the target node for this cavern (no path).
+   * This is a lookup in the target's shortest-path tree, so only the first call
+   * runs Dijkstra's algorithm.
+   * Precondition: {@code start} must be a node in this cavern.
+   */
+  int minPathLengthToTarget(Node start) {
+    int distance = getTargetTree().distanceTo(start);
+    if (distance == ShortestPathTree.UNREACHABLE) {
+      throw new IllegalStateException("The target should always be reachable.");
     }
-    throw new IllegalStateException("The above loop should always reach the desired location.");
+    return distance;
   }
 
   /**
@@ -449,19 +501,255 @@ public class Cavern {
   public List<String> serialize() {
     List<String> nodes = new ArrayList<>();
     nodes.add(rows + ":" + cols + ",trgt:" + target.getId());
-    for (Node n : graph) {
-      Tile t = n.getTile();
-      String nodeStr = n.getId() + "," + t.getRow() + "," + t.getColumn() 
-          + "," + t.getGold() + "," + t.getType().name();
-
-      String edges = n.getExits().stream()
-                       .map((e) -> e.getOther(n).getId() + "-" + e.length())
-                       .collect(Collectors.joining(","));
-      nodes.add(nodeStr + "=" + edges);
+    for (int o = 0; o < adjacency.size(); o++) {
+      Tile t = adjacency.node(o).getTile();
+      StringBuilder nodeStr = new StringBuilder();
+      nodeStr.append(adjacency.node(o).getId()).append(',').append(t.getRow())
+          .append(',').append(t.getColumn()).append(',').append(t.getGold())
+          .append(',').append(t.getType().name()).append('=');
+
+      for (int k = adjacency.firstArc(o); k < adjacency.endArc(o); k++) {
+        if (k > adjacency.firstArc(o)) {
+          nodeStr.append(',');
+        }
+        nodeStr.append(adjacency.node(adjacency.target(k)).getId())
+            .append('-').append(adjacency.weight(k));
+      }
+      nodes.add(nodeStr.toString());
     }
     return nodes;
   }
 
+  /**
+   * An enum representing how digEscapeCavern deals with a candidate cavern in which
+   * the cell that must be floor was walled off.
+   * Both reject such candidates and dig again, so every cavern that can be returned
+   * is returned with the same probability under either of them: abandoning a
+   * candidate early does not change which candidates are accepted, or how likely
+   * each of them is. They differ only in the randomness used up by a rejected
+   * candidate, so they give different caverns for the same seed.
+   */
+  public enum Generation {
+    /**
+     * Use up as much randomness on a rejected candidate as digging it in full does,
+     * so that a seed gives the same cavern as it did in earlier versions.
+     */
+    REPRODUCIBLE,
+
+    /**
+     * Abandon a candidate as soon as the cell that must be floor is walled off.
+     */
+    FAST
+  }
+
+  /**
+   * An instance is the layout of open cells made by one random walk over a grid,
+   * before any nodes, tiles or edges are made for it. Cells are numbered
+   * row * cols + col, and seen and open cells are kept in bitsets.
+   */
+  private static final class Dig {
+    /** The cell passed to dig() when no cell is required to be open. */
+    static final int NONE = -1;
+
+    final int rows;
+    final int cols;
+    /** The open cells, in the order in which they were dug (the entrance first). */
+    int[] cells;
+    /** gold[i] is the gold on cells[i]. */
+    int[] gold;
+    /** The number of open cells. */
+    int size;
+    final BitSet open;
+
+    /**
+     * Constructor: an empty dig of a grid of size (rws, cls).
+     */
+    private Dig(int rws, int cls) {
+      rows = rws;
+      cols = cls;
+      // Grown as cells are dug, as most of a large grid stays wall.
+      int capacity = Math.min(rows * cols, 1024);
+      cells = new int[capacity];
+      gold = new int[capacity];
+      open = new BitSet(rows * cols);
+    }
+
+    /**
+     * Dig a new random layout that fits within a grid of size (rows, cols) and return it.
+     * Use goldGenerator to generate gold for each open cell. Return null as soon as
+     * cell required is walled off (unless it is NONE).
+     * The randomness used is exactly that of the original generator, which kept
+     * HashSets of points and made a node for each open cell as it went.
+     */
+    static Dig dig(int rows, int cols, Random rand,
+                   Supplier<Integer> goldGenerator, int required) {
+      Dig dig = new Dig(rows, cols);
+      BitSet seen = new BitSet(rows * cols);
+      int[] newExits = new int[Direction.values().length];
+
+      int entrance = entranceCell(rows, cols, rand);
+      seen.set(entrance);
+      dig.add(entrance, 0);
+      // cells doubles as the frontier queue: cells are explored in the order dug.
+      for (int head = 0; head < dig.size; head++) {
+        int r = dig.cells[head] / cols;
+        int c = dig.cells[head] % cols;
+
+        // We want to make sure there's a way out if we can get one.
+        // This will prevent stupid degenerate graphs.
+        int existingExits = 0;
+        int numberOfExits = 0;
+        for (Direction dir : Direction.values()) {
+          int nr = r + dir.getPoint().row;
+          int nc = c + dir.getPoint().col;
+          if (isInside(rows, cols, nr, nc)) {
+            int q = nr * cols + nc;
+            if (dig.open.get(q)) {
+              existingExits++;
+            } else if (!seen.get(q)) {
+              seen.set(q);
+              newExits[numberOfExits++] = q;
+            }
+          }
+        }
+
+        if (numberOfExits > 0) {
+          double modifiedDensity;
+          int forcedExit;
+          // Modify the density function so that the expected number of open exits
+          // is the same even though we're forcing something to be open.
+          if (existingExits < 2) {
+            modifiedDensity =
+              (numberOfExits == 1 ? 0.0 : (numberOfExits * DENSITY - 1) / (numberOfExits - 1));
+            forcedExit = newExits[rand.nextInt(numberOfExits)];
+          } else {
+            modifiedDensity = DENSITY;
+            forcedExit = NONE;
+          }
+          for (int k = 0; k < numberOfExits; k++) {
+            int q = newExits[k];
+            if (q == forcedExit || rand.nextDouble() < modifiedDensity) {
+              dig.add(q, goldGenerator.get());
+            } else if (q == required) {
+              // A seen cell that is not opened straight away never will be.
+              return null;
+            }
+          }
+        }
+      }
+      return dig;
+    }
+
+    /**
+     * Open cell, with gold g on it.
+     */
+    private void add(int cell, int g) {
+      if (size == cells.length) {
+        cells = Arrays.copyOf(cells, Math.min(2 * size, rows * cols));
+        gold = Arrays.copyOf(gold, cells.length);
+      }
+      open.set(cell);
+      cells[size] = cell;
+      gold[size] = g;
+      size++;
+    }
+
+    /**
+     * Return true iff cell is open and is not the entrance.
+     */
+    boolean isFloor(int cell) {
+      return open.get(cell) && cell != cells[0];
+    }
+
+    /**
+     * Return the number of steps on a shortest walk through open cells from the
+     * entrance to cell (which must be open; every open cell can be reached), or
+     * limit if that is at least limit. The search stops at limit steps, so a far
+     * cell costs no more than the cells within limit steps of the entrance.
+     */
+    int hopsFromEntrance(int cell, int limit) {
+      BitSet reached = new BitSet(rows * cols);
+      int[] queue = new int[size];
+      int tail = 0;
+      queue[tail++] = cells[0];
+      reached.set(cells[0]);
+      // The queue holds the cells hops steps away in [head, levelEnd), then the next.
+      int hops = 0;
+      int levelEnd = tail;
+      for (int head = 0; head < tail; head++) {
+        if (head == levelEnd) {
+          hops++;
+          levelEnd = tail;
+          if (hops >= limit) {
+            return limit;
+          }
+        }
+        int p = queue[head];
+        if (p == cell) {
+          return hops;
+        }
+        for (Direction dir : Direction.values()) {
+          int nr = p / cols + dir.getPoint().row;
+          int nc = p % cols + dir.getPoint().col;
+          if (nr >= 0 && nr < rows && nc >= 0 && nc < cols) {
+            int q = nr * cols + nc;
+            if (open.get(q) && !reached.get(q)) {
+              reached.set(q);
+              queue[tail++] = q;
+            }
+          }
+        }
+      }
+      throw new IllegalArgumentException("Cell " + cell + " is not open");
+    }
+
+    /**
+     * Return the number of edges that createEdges makes for this layout.
+     */
+    int edgeCount() {
+      int count = 0;
+      for (int i = 0; i < rows - 1; i++) {
+        for (int j = 0; j < cols - 1; j++) {
+          int p = i * cols + j;
+          if (open.get(p)) {
+            count += (open.get(p + cols) ? 1 : 0) + (open.get(p + 1) ? 1 : 0);
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Return true iff (r, c) is inside a grid of size (rows, cols) and
+     * not on its boundary.
+     */
+    private static boolean isInside(int rows, int cols, int r, int c) {
+      return r > 0
+        && r < rows - 1
+        && c > 0
+        && c < cols - 1;
+    }
+
+    /**
+     * Randomly determine and return the entrance cell of a grid of size (rows, cols)
+     * (the only non-wall cell along an edge of the grid).
+     */
+    private static int entranceCell(int rows, int cols, Random rand) {
+      switch (rand.nextInt(4)) {
+        case 0: // North wall
+          return (rand.nextInt(rows - 2) + 1) * cols;
+        case 1: // South wall
+          return (rand.nextInt(rows - 2) + 1) * cols + cols - 1;
+        case 2: // West wall
+          return rand.nextInt(cols - 2) + 1;
+        case 3: // East wall
+          return (rows - 1) * cols + rand.nextInt(cols - 2) + 1;
+        default:
+          throw new IllegalStateException("Unexpected random value!");
+      }
+    }
+  }
+
   /**
    * An enum reprsenting a grid direction.
    */
@@ -0,0 +1,184 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An instance is an on-disk cache of the caverns of seeded games, so that games can
+ * load their caverns instead of generating them again.
+ *
+ * <p>The cache is content-addressed. Each cavern is stored once, in the binary
+ * format of CavernFile, as objects/XX/HASH.cav, where HASH is the SHA-256 of the
+ * file in hex and XX its first two digits. A game's seed is mapped to its two
+ * caverns by the text file seeds/vGENERATION/SEED, which holds the hashes of the
+ * explore and escape caverns on two lines. Every file is written to a temporary file
+ * first and then moved into place, so that any number of threads and processes can
+ * share a cache, and a file that is there is complete.</p>
+ *
+ * <p>When loaded, a cavern is checked against its hash, so a damaged entry is
+ * treated as missing (and is replaced when stored again), never used.</p>
+ */
+public final class CavernCache {
+  /**
+   * The version of cavern generation. Caverns generated by other versions are not
+   * used, so this must be increased whenever a seed would give different caverns.
+   */
+  public static final int GENERATION = 1;
+
+  private final Path dir;
+
+  /**
+   * Constructor: the cache in directory d, which is created when first stored to.
+   */
+  public CavernCache(Path d) {
+    dir = d;
+  }
+
+  /**
+   * Return the directory of this cache.
+   */
+  public Path getDirectory() {
+    return dir;
+  }
+
+  /**
+   * Return true iff this cache has an entry for the game with seed seed, whether or
+   * not the caverns it refers to are there and undamaged (which load(seed) checks).
+   */
+  public boolean contains(long seed) {
+    return Files.exists(seedFile(seed));
+  }
+
+  /**
+   * Return the explore and escape caverns of the game with seed seed, loading them
+   * if they are in this cache, and otherwise generating them and storing them in it.
+   * Throw an IOException if they have to be stored and cannot be.
+   */
+  public Pair<Cavern, Cavern> get(long seed) throws IOException {
+    Optional<Pair<Cavern, Cavern>> caverns = load(seed);
+    if (caverns.isPresent()) {
+      return caverns.get();
+    }
+    Pair<Cavern, Cavern> dug = GameState.digCaverns(seed);
+    store(seed, dug);
+    return dug;
+  }
+
+  /**
+   * Return the explore and escape caverns of the game with seed seed if they are in
+   * this cache, undamaged, and otherwise nothing.
+   */
+  public Optional<Pair<Cavern, Cavern>> load(long seed) {
+    try {
+      List<String> hashes = Files.readAllLines(seedFile(seed), StandardCharsets.US_ASCII);
+      if (hashes.size() != 2) {
+        return Optional.empty();
+      }
+      return Optional.of(new Pair<>(loadObject(hashes.get(0)), loadObject(hashes.get(1))));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Store caverns, the explore and escape caverns of the game with seed seed,
+   * replacing any caverns stored for seed.
+   * Throw an IOException if they cannot be written.
+   */
+  public void store(long seed, Pair<Cavern, Cavern> caverns) throws IOException {
+    String explore = storeObject(caverns.getFirst());
+    String escape = storeObject(caverns.getSecond());
+    byte[] refs = (explore + "\n" + escape + "\n").getBytes(StandardCharsets.US_ASCII);
+    writeAtomically(seedFile(seed), ByteBuffer.wrap(refs));
+  }
+
+  /**
+   * Return the cavern whose file has hash hash.
+   * Throw an IOException if it is missing, or its contents do not have that hash.
+   */
+  private Cavern loadObject(String hash) throws IOException {
+    Path file = objectFile(hash);
+    byte[] bytes = Files.readAllBytes(file);
+    if (!hash.equals(sha256(ByteBuffer.wrap(bytes)))) {
+      throw new IOException("Damaged cavern in cache: " + file);
+    }
+    return CavernFile.decode(ByteBuffer.wrap(bytes), file.toString());
+  }
+
+  /**
+   * Store cavern and return the hash of its file.
+   */
+  private String storeObject(Cavern cavern) throws IOException {
+    ByteBuffer buf = CavernFile.encode(cavern);
+    String hash = sha256(buf.duplicate());
+    writeAtomically(objectFile(hash), buf);
+    return hash;
+  }
+
+  /**
+   * Return the file that maps seed to its caverns.
+   */
+  private Path seedFile(long seed) {
+    return dir.resolve("seeds").resolve("v" + GENERATION).resolve(Long.toString(seed));
+  }
+
+  /**
+   * Return the file of the cavern with hash hash.
+   * Throw an IOException if hash is not a SHA-256 in hex.
+   */
+  private Path objectFile(String hash) throws IOException {
+    if (!hash.matches("[0-9a-f]{64}")) {
+      throw new IOException("Bad hash in cavern cache: " + hash);
+    }
+    return dir.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash + ".cav");
+  }
+
+  /**
+   * Write the remaining bytes of buf to file, replacing it if it exists, by writing
+   * them to a temporary file in the same directory and moving that into place.
+   */
+  private static void writeAtomically(Path file, ByteBuffer buf) throws IOException {
+    Files.createDirectories(file.getParent());
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (buf.hasRemaining()) {
+          channel.write(buf);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Return the SHA-256 of the remaining bytes of buf, in lower-case hex.
+   */
+  private static String sha256(ByteBuffer buf) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    digest.update(buf);
+    StringBuilder hex = new StringBuilder(64);
+    for (byte b : digest.digest()) {
+      hex.append(Character.forDigit((b >>> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+}
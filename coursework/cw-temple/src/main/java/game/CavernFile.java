@@ -0,0 +1,190 @@
+package game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes caverns in a compact, versioned binary format.
+ *
+ * <p>All values are big-endian. A file consists of:
+ * 1. A header: the magic number MAGIC, the format VERSION, the number of rows and
+ * columns, the number of open nodes n, the number of arcs m and the ordinal of the target
+ * (all ints).
+ * 2. The tile array: for each ordinal in [0..n-1], the node id (a long), its row, column
+ * and gold (ints) and its tile type (a byte holding the ordinal of the Tile.Type).
+ * 3. The packed edge list, in the CSR form of CompactGraph: n + 1 int offsets,
+ * then m int targets and m int weights.</p>
+ *
+ * <p>Files are read through a MappedByteBuffer, so loading a cavern allocates only the
+ * nodes, tiles and CSR arrays themselves (no per-line strings).
+ * Caverns in the text format of Cavern.serialize() can still be loaded with load(),
+ * and converted with write().</p>
+ */
+public final class CavernFile {
+  /** The first four bytes of every binary cavern file: "CAVE". */
+  public static final int MAGIC = 0x43415645;
+  /** The version of the format written by this class. */
+  public static final int VERSION = 1;
+
+  private static final int HEADER_BYTES = 7 * Integer.BYTES;
+  private static final int TILE_BYTES = Long.BYTES + 3 * Integer.BYTES + 1;
+
+  private CavernFile() {
+  }
+
+  /**
+   * Write cavern to file in the binary format, replacing the file if it exists.
+   * Throw an IOException if the file cannot be written or the cavern is too large.
+   */
+  public static void write(Cavern cavern, Path file) throws IOException {
+    ByteBuffer buf = encode(cavern);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buf.hasRemaining()) {
+        channel.write(buf);
+      }
+    }
+  }
+
+  /**
+   * Return a buffer holding cavern in the binary format, from position 0 to its limit.
+   * Throw an IOException if the cavern is too large for a single buffer.
+   */
+  static ByteBuffer encode(Cavern cavern) throws IOException {
+    CompactGraph graph = cavern.getAdjacency();
+    int n = graph.size();
+    int m = graph.arcCount();
+    long size = HEADER_BYTES + (long) n * TILE_BYTES + (n + 1 + 2L * m) * Integer.BYTES;
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Cavern too large for a cavern file: " + size + " bytes");
+    }
+    ByteBuffer buf = ByteBuffer.allocate((int) size);
+
+    buf.putInt(MAGIC).putInt(VERSION)
+        .putInt(cavern.getRowCount()).putInt(cavern.getColumnCount())
+        .putInt(n).putInt(m).putInt(cavern.getTarget().getOrdinal());
+    for (int o = 0; o < n; o++) {
+      Node node = graph.node(o);
+      Tile t = node.getTile();
+      buf.putLong(node.getId()).putInt(t.getRow()).putInt(t.getColumn()).putInt(t.getGold())
+          .put((byte) t.getType().ordinal());
+    }
+    for (int o = 0; o <= n; o++) {
+      buf.putInt(o < n ? graph.firstArc(o) : m);
+    }
+    for (int k = 0; k < m; k++) {
+      buf.putInt(graph.target(k));
+    }
+    for (int k = 0; k < m; k++) {
+      buf.putInt(graph.weight(k));
+    }
+    buf.flip();
+    return buf;
+  }
+
+  /**
+   * Return the cavern stored in file, which may be in the binary format or in
+   * the text format of Cavern.serialize().
+   * Throw an IOException if the file cannot be read or is not a valid cavern.
+   */
+  public static Cavern load(Path file) throws IOException {
+    if (isBinary(file)) {
+      return read(file);
+    }
+    return Cavern.deserialize(Files.readAllLines(file));
+  }
+
+  /**
+   * Return true iff file starts with the magic number of the binary format.
+   */
+  public static boolean isBinary(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+      while (magic.hasRemaining() && channel.read(magic) >= 0) {
+        // keep reading until we have the whole magic number or hit the end
+      }
+      return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+    }
+  }
+
+  /**
+   * Return the cavern stored in file in the binary format.
+   * Throw an IOException if the file cannot be read, is not in the binary format,
+   * was written by an unsupported version, or is truncated or inconsistent.
+   */
+  public static Cavern read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return decode(buf, file.toString());
+    }
+  }
+
+  /**
+   * Return the cavern stored in buf in the binary format, read from source.
+   * Throw an IOException as read(file) does, naming source.
+   */
+  static Cavern decode(ByteBuffer buf, String source) throws IOException {
+    try {
+      return read(buf);
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Truncated cavern file: " + source, e);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+      throw new IOException("Corrupt cavern file: " + source, e);
+    }
+  }
+
+  /**
+   * Return the cavern stored in buf, in the binary format.
+   */
+  private static Cavern read(ByteBuffer buf) throws IOException {
+    if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+      throw new IOException("Not a binary cavern file");
+    }
+    int version = buf.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported cavern file version: " + version);
+    }
+    int rows = buf.getInt();
+    int cols = buf.getInt();
+    int n = buf.getInt();
+    int m = buf.getInt();
+    int targetOrdinal = buf.getInt();
+
+    Tile.Type[] types = Tile.Type.values();
+    Node[] nodes = new Node[n];
+    long freshId = 0;
+    boolean hasEntrance = false;
+    for (int o = 0; o < n; o++) {
+      long id = buf.getLong();
+      int row = buf.getInt();
+      int col = buf.getInt();
+      int gold = buf.getInt();
+      Tile.Type type = types[buf.get()];
+      nodes[o] = new Node(id, new Tile(row, col, gold, type));
+      freshId = Math.max(freshId, id + 1);
+      hasEntrance |= (type == Tile.Type.ENTRANCE);
+    }
+    if (!hasEntrance) {
+      // Reported as corrupt by decode(), rather than as Cavern's NullPointerException
+      throw new IllegalArgumentException("The cavern has no entrance");
+    }
+
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[m];
+    int[] weights = new int[m];
+    buf.asIntBuffer().get(offsets);
+    buf.position(buf.position() + offsets.length * Integer.BYTES);
+    buf.asIntBuffer().get(targets);
+    buf.position(buf.position() + targets.length * Integer.BYTES);
+    buf.asIntBuffer().get(weights);
+
+    return new Cavern(rows, cols, new CompactGraph(nodes, offsets, targets, weights), freshId,
+                      nodes[targetOrdinal]);
+  }
+}
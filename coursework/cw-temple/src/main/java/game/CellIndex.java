@@ -0,0 +1,102 @@
+package game;
+
+/**
+ * An instance maps the cells of a grid of size (rows, cols) to the ordinals of the
+ * open cells among them. Walls are kept only implicitly, as the clear bits of a
+ * bitset with one bit per cell, so that a grid costs a little over one bit per cell
+ * plus one int per open cell, however few of its cells are open.
+ *
+ * <p>Cells are numbered row * cols + col. The open cells are ranked in that order,
+ * and the rank of a cell is found from the number of open cells before its word of
+ * the bitset, which is kept for every word, plus a bit count within the word.</p>
+ */
+final class CellIndex {
+  /** Returned by ordinalAt for a wall. */
+  static final int WALL = -1;
+
+  private final int rows;
+  private final int cols;
+  /** Bit cell % 64 of words[cell / 64] is set iff cell is open. */
+  private final long[] words;
+  /** rankBase[w] is the number of open cells in words[0..w-1]. */
+  private final int[] rankBase;
+  /** ordinalByRank[k] is the ordinal of the open cell of rank k. */
+  private final int[] ordinalByRank;
+
+  /**
+   * Constructor: the index of a grid of size (rws, cls) whose open cells are
+   * cellOf[0..n-1], the cell cellOf[o] having ordinal o.
+   * Throw an IllegalArgumentException if the grid has more than Integer.MAX_VALUE
+   * cells, or if a cell is outside the grid or given twice.
+   */
+  CellIndex(int rws, int cls, int[] cellOf, int n) {
+    if ((long) rws * cls > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Grid too large: " + rws + "x" + cls);
+    }
+    rows = rws;
+    cols = cls;
+    int cells = rows * cols;
+    words = new long[(int) (((long) cells + Long.SIZE - 1) / Long.SIZE)];
+    for (int o = 0; o < n; o++) {
+      int cell = cellOf[o];
+      if (cell < 0 || cell >= cells || (words[cell >>> 6] & (1L << cell)) != 0) {
+        throw new IllegalArgumentException("Bad open cell: " + cell);
+      }
+      words[cell >>> 6] |= 1L << cell;
+    }
+    rankBase = new int[words.length + 1];
+    for (int w = 0; w < words.length; w++) {
+      rankBase[w + 1] = rankBase[w] + Long.bitCount(words[w]);
+    }
+    ordinalByRank = new int[n];
+    for (int o = 0; o < n; o++) {
+      ordinalByRank[rank(cellOf[o])] = o;
+    }
+  }
+
+  /**
+   * Return the number of open cells.
+   */
+  int openCount() {
+    return ordinalByRank.length;
+  }
+
+  /**
+   * Return the ordinal of the open cell (r, c), or WALL if it is a wall.
+   * Throw an IndexOutOfBoundsException if (r, c) is not in the grid.
+   */
+  int ordinalAt(int r, int c) {
+    int cell = cellAt(r, c);
+    if ((words[cell >>> 6] & (1L << cell)) == 0) {
+      return WALL;
+    }
+    return ordinalByRank[rank(cell)];
+  }
+
+  /**
+   * Return the number of walls that come before (r, c) in row-major order.
+   * Throw an IndexOutOfBoundsException if (r, c) is not in the grid.
+   */
+  int wallsBefore(int r, int c) {
+    int cell = cellAt(r, c);
+    return cell - rank(cell);
+  }
+
+  /**
+   * Return the number of open cells before cell in row-major order.
+   */
+  private int rank(int cell) {
+    return rankBase[cell >>> 6] + Long.bitCount(words[cell >>> 6] & ((1L << cell) - 1));
+  }
+
+  /**
+   * Return the number of cell (r, c).
+   * Throw an IndexOutOfBoundsException if it is not in the grid.
+   */
+  private int cellAt(int r, int c) {
+    if (r < 0 || r >= rows || c < 0 || c >= cols) {
+      throw new IndexOutOfBoundsException("(" + r + ", " + c + ") is not in the grid");
+    }
+    return r * cols + c;
+  }
+}
@@ -0,0 +1,376 @@
+package game;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An instance is an immutable adjacency structure over the open nodes of a cavern,
+ * stored in compressed sparse row (CSR) form.
+ *
+ * <p>Every node in the graph has a dense ordinal in [0..size()-1]. The arcs leaving the
+ * node with ordinal o are stored in targets[offsets[o]..offsets[o+1]-1], with the
+ * corresponding lengths in weights[offsets[o]..offsets[o+1]-1]. An undirected edge of
+ * the cavern is stored as two arcs, one in each direction.</p>
+ *
+ * <p>Node and Edge objects are only views over these arrays: a Node knows its ordinal,
+ * and Edge objects are materialized lazily the first time somebody asks for them.</p>
+ */
+final class CompactGraph {
+  /** nodes[o] is the node with ordinal o. */
+  private final Node[] nodes;
+  /** Arcs of node o are in [offsets[o], offsets[o+1]). Length is size() + 1. */
+  private final int[] offsets;
+  /** targets[k] is the ordinal of the node that arc k goes to. */
+  private final int[] targets;
+  /** weights[k] is the length of arc k. */
+  private final int[] weights;
+  /** The smallest arc length (0 if there are no arcs). */
+  private final int minWeight;
+  /** edges[k] is the Edge view of arc k, or null if it has not been asked for yet. */
+  private Edge[] edges;
+
+  /**
+   * Constructor: the graph over nodes (nodes[i] gets ordinal i) whose arcs are
+   * already in CSR form in offs, tgts and wts, which now belong to this graph.
+   * Every node in nodes is bound to this graph.
+   * Throw an IllegalArgumentException if the arrays are not a valid CSR structure.
+   */
+  CompactGraph(Node[] nodes, int[] offs, int[] tgts, int[] wts) {
+    if (offs.length != nodes.length + 1 || offs[0] != 0 || offs[nodes.length] != tgts.length
+        || wts.length != tgts.length) {
+      throw new IllegalArgumentException("Inconsistent CSR arrays");
+    }
+    for (int o = 0; o < nodes.length; o++) {
+      if (offs[o] > offs[o + 1]) {
+        throw new IllegalArgumentException("CSR offsets must be non-decreasing");
+      }
+    }
+    for (int t : tgts) {
+      if (t < 0 || t >= nodes.length) {
+        throw new IllegalArgumentException("CSR target out of range: " + t);
+      }
+    }
+    int min = (wts.length == 0 ? 0 : Integer.MAX_VALUE);
+    for (int w : wts) {
+      if (w < 0) {
+        throw new IllegalArgumentException("CSR weights must not be negative");
+      }
+      min = Math.min(min, w);
+    }
+    minWeight = min;
+    this.nodes = nodes;
+    offsets = offs;
+    targets = tgts;
+    weights = wts;
+
+    for (int o = 0; o < nodes.length; o++) {
+      nodes[o].bind(this, o);
+    }
+  }
+
+  /**
+   * Return the number of nodes in this graph.
+   */
+  int size() {
+    return nodes.length;
+  }
+
+  /**
+   * Return the number of arcs in this graph (twice the number of undirected edges).
+   */
+  int arcCount() {
+    return targets.length;
+  }
+
+  /**
+   * Return the node with ordinal o.
+   */
+  Node node(int o) {
+    return nodes[o];
+  }
+
+  /**
+   * Return the index of the first arc leaving the node with ordinal o.
+   */
+  int firstArc(int o) {
+    return offsets[o];
+  }
+
+  /**
+   * Return one past the index of the last arc leaving the node with ordinal o.
+   */
+  int endArc(int o) {
+    return offsets[o + 1];
+  }
+
+  /**
+   * Return the ordinal of the node that arc k goes to.
+   */
+  int target(int k) {
+    return targets[k];
+  }
+
+  /**
+   * Return the length of arc k.
+   */
+  int weight(int k) {
+    return weights[k];
+  }
+
+  /**
+   * Return the smallest arc length in this graph (0 if there are no arcs).
+   */
+  int minWeight() {
+    return minWeight;
+  }
+
+  /**
+   * Return the number of arcs leaving the node with ordinal o.
+   */
+  int degree(int o) {
+    return offsets[o + 1] - offsets[o];
+  }
+
+  /**
+   * Return a parallel breadth-first search over this graph. Arcs come in pairs, one in
+   * each direction, so the arcs entering a node are those leaving it.
+   */
+  ParallelBfs parallelBfs() {
+    return new ParallelBfs(offsets, targets, offsets, targets);
+  }
+
+  /**
+   * Return the index of the arc from ordinal from to ordinal to, or -1 if there is none.
+   */
+  int findArc(int from, int to) {
+    for (int k = offsets[from]; k < offsets[from + 1]; k++) {
+      if (targets[k] == to) {
+        return k;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return the Edge view of arc k leaving the node with ordinal from.
+   * The same Edge object is returned every time this is called for k.
+   */
+  synchronized Edge edge(int from, int k) {
+    if (edges == null) {
+      edges = new Edge[targets.length];
+    }
+    if (edges[k] == null) {
+      edges[k] = new Edge(nodes[from], nodes[targets[k]], weights[k]);
+    }
+    return edges[k];
+  }
+
+  /**
+   * Return an unmodifiable set view of all the nodes of this graph, in order of ordinal.
+   */
+  Set<Node> nodes() {
+    return new NodeSet();
+  }
+
+  /**
+   * Return an unmodifiable set view of the nodes adjacent to the node with ordinal o.
+   */
+  Set<Node> neighbours(int o) {
+    return new NeighbourSet(o);
+  }
+
+  /**
+   * Return an unmodifiable set view of the edges leaving the node with ordinal o.
+   */
+  Set<Edge> exits(int o) {
+    return new ExitSet(o);
+  }
+
+  /**
+   * An unmodifiable view of all the nodes.
+   */
+  private final class NodeSet extends AbstractSet<Node> {
+    @Override
+    public int size() {
+      return nodes.length;
+    }
+
+    @Override
+    public boolean contains(Object ob) {
+      return ob instanceof Node && ((Node) ob).getGraph() == CompactGraph.this;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return new Iterator<Node>() {
+        private int o;
+
+        @Override
+        public boolean hasNext() {
+          return o < nodes.length;
+        }
+
+        @Override
+        public Node next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return nodes[o++];
+        }
+      };
+    }
+  }
+
+  /**
+   * An unmodifiable view of the neighbours of one node.
+   */
+  private final class NeighbourSet extends AbstractSet<Node> {
+    private final int from;
+
+    private NeighbourSet(int o) {
+      from = o;
+    }
+
+    @Override
+    public int size() {
+      return degree(from);
+    }
+
+    @Override
+    public boolean contains(Object ob) {
+      if (!(ob instanceof Node)) {
+        return false;
+      }
+      Node n = (Node) ob;
+      return n.getGraph() == CompactGraph.this && findArc(from, n.getOrdinal()) >= 0;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return new Iterator<Node>() {
+        private int arc = offsets[from];
+
+        @Override
+        public boolean hasNext() {
+          return arc < offsets[from + 1];
+        }
+
+        @Override
+        public Node next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return nodes[targets[arc++]];
+        }
+      };
+    }
+  }
+
+  /**
+   * An unmodifiable view of the edges leaving one node.
+   */
+  private final class ExitSet extends AbstractSet<Edge> {
+    private final int from;
+
+    private ExitSet(int o) {
+      from = o;
+    }
+
+    @Override
+    public int size() {
+      return degree(from);
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+      return new Iterator<Edge>() {
+        private int arc = offsets[from];
+
+        @Override
+        public boolean hasNext() {
+          return arc < offsets[from + 1];
+        }
+
+        @Override
+        public Edge next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return edge(from, arc++);
+        }
+      };
+    }
+  }
+
+  /**
+   * An instance collects the arcs of a graph and then builds a CompactGraph from them.
+   */
+  static final class Builder {
+    private final Node[] nodes;
+    private int arcCount;
+    private int[] src;
+    private int[] dst;
+    private int[] len;
+
+    /**
+     * Constructor: a builder for a graph over nodes (nodes[i] will get ordinal i).
+     */
+    Builder(Node[] nodes) {
+      this.nodes = nodes;
+      int capacity = Math.max(4, 4 * nodes.length);
+      src = new int[capacity];
+      dst = new int[capacity];
+      len = new int[capacity];
+    }
+
+    /**
+     * Add an arc of length weight from ordinal from to ordinal to.
+     */
+    Builder addArc(int from, int to, int weight) {
+      if (arcCount == src.length) {
+        src = Arrays.copyOf(src, 2 * arcCount);
+        dst = Arrays.copyOf(dst, 2 * arcCount);
+        len = Arrays.copyOf(len, 2 * arcCount);
+      }
+      src[arcCount] = from;
+      dst[arcCount] = to;
+      len[arcCount] = weight;
+      arcCount++;
+      return this;
+    }
+
+    /**
+     * Add arcs in both directions between ordinals a and b, each of length weight.
+     */
+    Builder addEdge(int a, int b, int weight) {
+      return addArc(a, b, weight).addArc(b, a, weight);
+    }
+
+    /**
+     * Return the graph built from the arcs added so far, binding every node to it.
+     */
+    CompactGraph build() {
+      int[] offsets = new int[nodes.length + 1];
+      int[] targets = new int[arcCount];
+      int[] weights = new int[arcCount];
+
+      // Counting sort of the arcs by source ordinal.
+      for (int i = 0; i < arcCount; i++) {
+        offsets[src[i] + 1]++;
+      }
+      for (int o = 0; o < nodes.length; o++) {
+        offsets[o + 1] += offsets[o];
+      }
+      int[] next = Arrays.copyOf(offsets, nodes.length);
+      for (int i = 0; i < arcCount; i++) {
+        int k = next[src[i]]++;
+        targets[k] = dst[i];
+        weights[k] = len[i];
+      }
+      return new CompactGraph(nodes, offsets, targets, weights);
+    }
+  }
+}
@@ -11,6 +11,9 @@ import java.util.Collection;
  * to search through the cavern and find the target.</p>
  */
 public interface ExplorationState {
+  /** The largest number of neighbours a node can have (one in each direction). */
+  int MAX_NEIGHBOURS = 4;
+
   /**
    * Return the unique identifier associated with your current location.
    */
@@ -27,6 +30,27 @@ public interface ExplorationState {
    */
   Collection<NodeStatus> getNeighbours();
 
+  /**
+   * Put the NodeStatus objects of all direct neighbours of your current location
+   * (as returned by getNeighbours()) into buffer[0..], in no particular order, and
+   * return how many there are. No node has more than MAX_NEIGHBOURS neighbours, so a
+   * buffer of that size can be reused for every call. A GameState does this without
+   * allocating any objects.
+   * Throw an IllegalArgumentException if buffer is too small.
+   */
+  default int getNeighbours(NodeStatus[] buffer) {
+    Collection<NodeStatus> neighbours = getNeighbours();
+    if (neighbours.size() > buffer.length) {
+      throw new IllegalArgumentException("getNeighbours: buffer must hold "
+          + neighbours.size() + " statuses");
+    }
+    int count = 0;
+    for (NodeStatus ns : neighbours) {
+      buffer[count++] = ns;
+    }
+    return count;
+  }
+
   /**
    * Return your current distance along the grid (NOT THE GRAPH) from the target.
    */
@@ -0,0 +1,177 @@
+package game;
+
+/**
+ * An instance is an immutable record of something that happened in a game and
+ * that a display (or a recorder) may want to show, published by GameState
+ * to a GameEventRing.
+ */
+public final class GameEvent {
+  /**
+   * An enum representing the kinds of event.
+   */
+  public enum Kind {
+    /** A phase started in a new cavern (see getCavern(), getGold() and getValue()). */
+    CAVERN,
+    /** The cavern was made all light or all dark (see isLight()). */
+    LIGHTING,
+    /** The explorer moved to an adjacent node (see getNode()). */
+    MOVE,
+    /** The bonus multiplier changed (see getBonus()). */
+    BONUS,
+    /** The time remaining changed (see getValue()). */
+    TIME_REMAINING,
+    /** Gold was picked up on a node (see getNode(), getValue() and getScore()). */
+    GOLD,
+    /** The explorer's solution went wrong (see getMessage()). */
+    ERROR
+  }
+
+  private final Kind kind;
+  private final Cavern cavern;
+  private final int[][] gold;
+  private final Node node;
+  private final int value;
+  private final int score;
+  private final double bonus;
+  private final boolean light;
+  private final String message;
+
+  /**
+   * Constructor: an event of kind k with the given details (null or 0 when unused).
+   */
+  private GameEvent(Kind k, Cavern c, int[][] g, Node n, int v, int s, double b,
+                    boolean l, String m) {
+    kind = k;
+    cavern = c;
+    gold = g;
+    node = n;
+    value = v;
+    score = s;
+    bonus = b;
+    light = l;
+    message = m;
+  }
+
+  /**
+   * Return an event for the start of a phase in cavern c with time remaining time.
+   * The gold on every tile of c is copied now, so that a display that is behind the
+   * game still shows gold that has since been picked up.
+   */
+  static GameEvent cavern(Cavern c, int time) {
+    int[][] g = new int[c.getRowCount()][c.getColumnCount()];
+    for (int i = 0; i < g.length; i++) {
+      for (int j = 0; j < g[i].length; j++) {
+        g[i][j] = c.getTileAt(i, j).getGold();
+      }
+    }
+    return new GameEvent(Kind.CAVERN, c, g, null, time, 0, 0, false, null);
+  }
+
+  /**
+   * Return an event for the cavern being made all light (light = true) or all dark.
+   */
+  static GameEvent lighting(boolean light) {
+    return new GameEvent(Kind.LIGHTING, null, null, null, 0, 0, 0, light, null);
+  }
+
+  /**
+   * Return an event for the explorer moving to n.
+   */
+  static GameEvent move(Node n) {
+    return new GameEvent(Kind.MOVE, null, null, n, 0, 0, 0, false, null);
+  }
+
+  /**
+   * Return an event for the bonus multiplier becoming bonus.
+   */
+  static GameEvent bonus(double bonus) {
+    return new GameEvent(Kind.BONUS, null, null, null, 0, 0, bonus, false, null);
+  }
+
+  /**
+   * Return an event for the time remaining becoming time.
+   */
+  static GameEvent timeRemaining(int time) {
+    return new GameEvent(Kind.TIME_REMAINING, null, null, null, time, 0, 0, false, null);
+  }
+
+  /**
+   * Return an event for the gold on n being picked up, bringing the gold collected
+   * to coins and the score to score.
+   */
+  static GameEvent gold(Node n, int coins, int score) {
+    return new GameEvent(Kind.GOLD, null, null, n, coins, score, 0, false, null);
+  }
+
+  /**
+   * Return an event for error message m.
+   */
+  static GameEvent error(String m) {
+    return new GameEvent(Kind.ERROR, null, null, null, 0, 0, 0, false, m);
+  }
+
+  /**
+   * Return the kind of this event.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Return the cavern of a CAVERN event.
+   */
+  public Cavern getCavern() {
+    return cavern;
+  }
+
+  /**
+   * Return the gold on each tile (indexed by row, then column) of the cavern of a
+   * CAVERN event when the event happened. The array must not be changed.
+   */
+  public int[][] getGold() {
+    return gold;
+  }
+
+  /**
+   * Return the node of a MOVE or GOLD event.
+   */
+  public Node getNode() {
+    return node;
+  }
+
+  /**
+   * Return the time remaining of a CAVERN or TIME_REMAINING event,
+   * or the gold collected of a GOLD event.
+   */
+  public int getValue() {
+    return value;
+  }
+
+  /**
+   * Return the score of a GOLD event.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Return the bonus multiplier of a BONUS event.
+   */
+  public double getBonus() {
+    return bonus;
+  }
+
+  /**
+   * Return true iff a LIGHTING event made the cavern all light.
+   */
+  public boolean isLight() {
+    return light;
+  }
+
+  /**
+   * Return the message of an ERROR event.
+   */
+  public String getMessage() {
+    return message;
+  }
+}
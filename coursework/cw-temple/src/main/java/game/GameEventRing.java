@@ -0,0 +1,134 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An instance is a bounded, lock-free queue of game events with one producer
+ * (the thread running the game) and one consumer (a display or a recorder).
+ *
+ * <p>Events are kept in a ring whose size is a power of two. The producer only
+ * writes tail and the consumer only writes head, each with a release store that
+ * the other side reads with an acquire load, so neither side ever takes a lock.
+ * The producer waits only when the consumer has fallen a whole ring behind.</p>
+ *
+ * <p>The producer calls close() once the game is over; the consumer then stops
+ * once isDrained() is true.</p>
+ */
+public final class GameEventRing {
+  /** How long a waiting producer or consumer sleeps before trying again. */
+  private static final long WAIT_NANOS = 100_000;
+
+  private final GameEvent[] ring;
+  private final int mask;
+  /** The number of events taken so far; the next event is at head & mask. */
+  private final AtomicLong head = new AtomicLong();
+  /** The number of events put so far; the next free slot is at tail & mask. */
+  private final AtomicLong tail = new AtomicLong();
+  private volatile boolean closed;
+
+  /**
+   * Constructor: an empty ring that holds at least capacity events.
+   * Precondition: 0 < capacity <= 2^30.
+   */
+  public GameEventRing(int capacity) {
+    if (capacity <= 0 || capacity > (1 << 30)) {
+      throw new IllegalArgumentException("Bad ring capacity: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    ring = new GameEvent[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Add e to the ring if there is room and return true, or return false if it is full.
+   * Only the producer may call this.
+   */
+  public boolean offer(GameEvent e) {
+    long t = tail.get();
+    if (t - head.get() == ring.length) {
+      return false;
+    }
+    ring[(int) t & mask] = e;
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Add e to the ring, waiting for the consumer to make room if it is full.
+   * Only the producer may call this.
+   */
+  public void put(GameEvent e) {
+    while (!offer(e)) {
+      LockSupport.parkNanos(WAIT_NANOS);
+    }
+  }
+
+  /**
+   * Remove and return the oldest event in the ring, or return null if it is empty.
+   * Only the consumer may call this.
+   */
+  public GameEvent poll() {
+    long h = head.get();
+    if (h == tail.get()) {
+      return null;
+    }
+    int slot = (int) h & mask;
+    GameEvent e = ring[slot];
+    ring[slot] = null;
+    head.lazySet(h + 1);
+    return e;
+  }
+
+  /**
+   * Remove and return the oldest event in the ring, waiting for one if it is empty.
+   * Return null if the ring is empty and closed. Only the consumer may call this.
+   */
+  public GameEvent take() throws InterruptedException {
+    while (true) {
+      GameEvent e = poll();
+      if (e != null) {
+        return e;
+      }
+      if (isDrained()) {
+        return null;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      LockSupport.parkNanos(WAIT_NANOS);
+    }
+  }
+
+  /**
+   * Say that no more events will be put. Only the producer may call this.
+   */
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Return true iff the ring is closed and every event has been taken.
+   */
+  public boolean isDrained() {
+    // Read closed first: every put happens before close(), so tail is final here.
+    return closed && head.get() == tail.get();
+  }
+
+  /**
+   * Return the number of events in the ring.
+   */
+  public int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  /**
+   * Return the largest number of events the ring can hold.
+   */
+  public int capacity() {
+    return ring.length;
+  }
+}
@@ -0,0 +1,301 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An instance is a recording of what an explorer did in one seeded game, read from
+ * a file written while the game ran (see GameState.runHeadlessGame(long, Path)).
+ * GameState.replay() plays it back against the game's caverns without running any
+ * explorer code.
+ *
+ * <p>A file is a header (the int MAGIC, the int VERSION and the long seed of the
+ * game, big-endian), followed by one record per call the explorer made and one per
+ * stage started, ended by an END record. A record is a one-byte tag, then the
+ * nanoseconds since the previous record (or since the game started) and, for a
+ * MOVE, the id of the node moved to. Both numbers are unsigned LEB128 varints, so
+ * a move usually takes three to five bytes.</p>
+ */
+public final class GameLog {
+  /** The first four bytes of every game log: "RPLY". */
+  public static final int MAGIC = 0x52504C59;
+  /** The version of the format written by this class. */
+  public static final int VERSION = 1;
+
+  /** The game is over. */
+  static final byte END = 0;
+  /** The explore phase started. */
+  static final byte EXPLORE = 1;
+  /** The escape phase started. */
+  static final byte ESCAPE = 2;
+  /** The explorer moved to the node whose id follows. */
+  static final byte MOVE = 3;
+  /** The explorer picked up the gold where it stood. */
+  static final byte GOLD = 4;
+  /** The explorer threw an exception, ending the phase. */
+  static final byte ERROR = 5;
+  /** The explorer tried to move further than the time remaining, ending the phase. */
+  static final byte OUT_OF_TIME = 6;
+
+  private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+
+  private final long seed;
+  private final byte[] data;
+  private final long exploreNanos;
+  private final long escapeNanos;
+  private final int moves;
+
+  /**
+   * Constructor: the log of the game with seed sd, whose records are in
+   * data[HEADER_BYTES..]. Throw an IOException if they are not well formed, or an
+   * IndexOutOfBoundsException if they are cut short.
+   */
+  private GameLog(long sd, byte[] dt) throws IOException {
+    seed = sd;
+    data = dt;
+
+    long[] stageNanos = new long[2];
+    int stage = -1;
+    int count = 0;
+    Cursor c = cursor();
+    boolean more;
+    do {
+      more = c.next();
+      if (c.tag() == EXPLORE) {
+        stage = 0;
+      } else if (c.tag() == MOVE) {
+        count++;
+      } else if (c.tag() != ESCAPE && (c.tag() < END || c.tag() > OUT_OF_TIME)) {
+        throw new IOException("Unknown game log record: " + c.tag());
+      }
+      // A record's nanoseconds were spent before it, so those of the ESCAPE
+      // record (the tail of the explore phase) count toward explore.
+      if (stage >= 0) {
+        stageNanos[stage] += c.nanos();
+      }
+      if (c.tag() == ESCAPE) {
+        stage = 1;
+      }
+    } while (more);
+    exploreNanos = stageNanos[0];
+    escapeNanos = stageNanos[1];
+    moves = count;
+  }
+
+  /**
+   * Return the log stored in file.
+   * Throw an IOException if the file cannot be read or is not a valid game log.
+   */
+  public static GameLog read(Path file) throws IOException {
+    byte[] data = Files.readAllBytes(file);
+    ByteBuffer header = ByteBuffer.wrap(data);
+    if (data.length < HEADER_BYTES || header.getInt() != MAGIC) {
+      throw new IOException("Not a game log: " + file);
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported game log version: " + version);
+    }
+    try {
+      return new GameLog(header.getLong(), data);
+    } catch (IOException | IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt game log: " + file, e);
+    }
+  }
+
+  /**
+   * Return the seed of the recorded game.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Return the number of moves the explorer made, in both phases.
+   */
+  public int getMoveCount() {
+    return moves;
+  }
+
+  /**
+   * Return the time taken by the explore phase, in nanoseconds, up to the start
+   * of the escape phase.
+   */
+  public long getExploreNanos() {
+    return exploreNanos;
+  }
+
+  /**
+   * Return the time taken by the escape phase, in nanoseconds (0 if there was none).
+   */
+  public long getEscapeNanos() {
+    return escapeNanos;
+  }
+
+  /**
+   * Return a cursor positioned before the first record.
+   */
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * An instance walks through the records of this log, in order.
+   */
+  final class Cursor {
+    private int pos = HEADER_BYTES;
+    private byte tag = -1;
+    private long nanos;
+    private long id;
+
+    /**
+     * Move to the next record and return true, or return false if this is at the
+     * END record. Throw an IndexOutOfBoundsException if the log is truncated.
+     */
+    boolean next() {
+      if (tag == END) {
+        return false;
+      }
+      tag = data[pos++];
+      nanos = readVarLong();
+      if (tag == MOVE) {
+        id = readVarLong();
+      }
+      return tag != END;
+    }
+
+    /**
+     * Return the tag of the record after the current one, or END if this is at
+     * the END record.
+     */
+    byte peekTag() {
+      return (tag == END ? END : data[pos]);
+    }
+
+    /**
+     * Return the tag of the current record.
+     */
+    byte tag() {
+      return tag;
+    }
+
+    /**
+     * Return the nanoseconds between the previous record and the current one.
+     */
+    long nanos() {
+      return nanos;
+    }
+
+    /**
+     * Return the node id of the current record, which must be a MOVE.
+     */
+    long id() {
+      return id;
+    }
+
+    /**
+     * Read and return an unsigned LEB128 varint.
+     */
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = data[pos++];
+        value |= (long) (b & 0x7f) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+  }
+
+  /**
+   * An instance appends the records of one game to a log file.
+   * Only the thread running the game may use it. A failure to write does not
+   * disturb the game being recorded: it is kept and thrown by close().
+   */
+  static final class Writer implements Closeable {
+    private final OutputStream out;
+    private long last;
+    /** The first exception thrown while writing, or null if there was none. */
+    private IOException failure;
+
+    /**
+     * Constructor: a writer to file (replaced if it exists) for the game with seed sd.
+     */
+    Writer(Path file, long sd) throws IOException {
+      out = new BufferedOutputStream(Files.newOutputStream(file));
+      out.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(sd)
+          .array());
+      last = System.nanoTime();
+    }
+
+    /**
+     * Append a record with tag t.
+     */
+    void record(byte t) {
+      record(t, -1);
+    }
+
+    /**
+     * Append a MOVE record to the node with id nodeId.
+     */
+    void recordMove(long nodeId) {
+      record(MOVE, nodeId);
+    }
+
+    /**
+     * Append a record with tag t, followed by nodeId unless it is negative.
+     */
+    private void record(byte t, long nodeId) {
+      if (failure != null) {
+        return;
+      }
+      long now = System.nanoTime();
+      try {
+        out.write(t);
+        writeVarLong(now - last);
+        if (nodeId >= 0) {
+          writeVarLong(nodeId);
+        }
+      } catch (IOException e) {
+        failure = e;
+      }
+      last = now;
+    }
+
+    /**
+     * Append an END record and close the file. Throw the first exception
+     * thrown while writing, if there was one.
+     */
+    @Override
+    public void close() throws IOException {
+      record(END);
+      try {
+        out.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+
+    /**
+     * Write value, which must not be negative, as an unsigned LEB128 varint.
+     */
+    private void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7fL) != 0) {
+        out.write((int) (value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package game;
+
+/**
+ * An instance is the immutable outcome of one game, as reported by a headless run.
+ */
+public final class GameResult {
+  private final long seed;
+  private final int score;
+  private final int gold;
+  private final double bonus;
+  private final boolean exploreSucceeded;
+  private final boolean escapeSucceeded;
+  private final boolean errored;
+  private final long nanos;
+
+  /**
+   * Constructor: the result of the game with seed sd, which ended with score scr,
+   * gold gld and bonus multiplier bns. explored and escaped say whether each phase
+   * succeeded, err whether the explorer threw an exception, and time is the
+   * wall-clock time taken in nanoseconds (cavern generation included).
+   */
+  GameResult(long sd, int scr, int gld, double bns, boolean explored,
+             boolean escaped, boolean err, long time) {
+    seed = sd;
+    score = scr;
+    gold = gld;
+    bonus = bns;
+    exploreSucceeded = explored;
+    escapeSucceeded = escaped;
+    errored = err;
+    nanos = time;
+  }
+
+  /**
+   * Return the seed of the game.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Return the final score (gold times bonus multiplier).
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Return the amount of gold collected.
+   */
+  public int getGold() {
+    return gold;
+  }
+
+  /**
+   * Return the bonus multiplier earned in the explore phase.
+   */
+  public double getBonus() {
+    return bonus;
+  }
+
+  /**
+   * Return true iff the explorer returned while standing on the orb.
+   */
+  public boolean getExploreSucceeded() {
+    return exploreSucceeded;
+  }
+
+  /**
+   * Return true iff the explorer returned while standing at the exit.
+   */
+  public boolean getEscapeSucceeded() {
+    return escapeSucceeded;
+  }
+
+  /**
+   * Return true iff the explorer threw an exception in either phase.
+   */
+  public boolean getErrored() {
+    return errored;
+  }
+
+  /**
+   * Return the wall-clock time taken by the game, in nanoseconds.
+   */
+  public long getNanos() {
+    return nanos;
+  }
+}
@@ -12,7 +12,6 @@ import static game.Constants.NO_BONUS_LENGTH;
 import gui.GUI;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -21,16 +20,25 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import student.Explorer;
 
 public class GameState implements ExplorationState, EscapeState {
+  /** The number of events a game can get ahead of its GUI. */
+  private static final int EVENT_CAPACITY = 1 << 16;
+  /** Where seeded games load their caverns from, or null if they generate them. */
+  private static volatile CavernCache cavernCache;
 
   private final Cavern exploreCavern;
   private final Cavern escapeCavern;
   private final Explorer explorer;
-  private final Optional<GUI> gui;
+  /** Where moves, gold and time updates go for a GUI to show at its own pace. */
+  private final Optional<GameEventRing> events;
   private final long seed;
+  /** True iff progress, results and errors are reported on the console. */
+  private final boolean verbose;
 
   private Node position;
   private int stepsTaken;
@@ -42,14 +50,20 @@ public class GameState implements ExplorationState, EscapeState {
   private boolean exploreErrored = false;
   private boolean escapeErrored = false;
   private int minTimeToExplore;
+  /** Where the explorer's calls are recorded, if anywhere. */
+  private Optional<GameLog.Writer> recorder = Optional.empty();
+  /** The recording played back instead of running the explorer, if any. */
+  private Optional<GameLog.Cursor> replay = Optional.empty();
+  /** Where the explorer's calls are measured, if anywhere. */
+  private Optional<GameStats> stats = Optional.empty();
 
   /**
    * Represents the current state of the game.
    */
   public GameState(Path exploreCavernPath, Path escapeCavernPath) throws IOException {
-    exploreCavern = Cavern.deserialize(Files.readAllLines(exploreCavernPath));
+    exploreCavern = CavernFile.load(exploreCavernPath);
     minTimeToExplore = exploreCavern.minPathLengthToTarget(exploreCavern.getEntrance());
-    escapeCavern = Cavern.deserialize(Files.readAllLines(escapeCavernPath));
+    escapeCavern = CavernFile.load(escapeCavernPath);
 
     explorer = new Explorer();
 
@@ -59,10 +73,10 @@ public class GameState implements ExplorationState, EscapeState {
     goldCollected = 0;
 
     seed = -1;
+    verbose = true;
 
     stage = Stage.EXPLORE;
-    gui = Optional.of(new GUI(exploreCavern, position.getTile().getRow(), 
-        position.getTile().getColumn(), 0));
+    events = Optional.of(startGui(exploreCavern, position, 0));
   }
 
   /**
@@ -77,13 +91,37 @@ public class GameState implements ExplorationState, EscapeState {
    * The randomness is based on seed.
    */
   private GameState(long seed, boolean useGui) {
-    Random rand = new Random(seed);
-    final int rows = rand.nextInt(MAX_ROWS - MIN_ROWS + 1) + MIN_ROWS;
-    final int cols = rand.nextInt(MAX_COLS - MIN_COLS + 1) + MIN_COLS;
-    exploreCavern = Cavern.digExploreCavern(rows, cols, rand);
+    this(seed, useGui, true);
+  }
+
+  /**
+   * Constructor: a random instance with a GUI only if useGUI is true,
+   * reporting on the console only if verbose is true.
+   * The caverns are those of seed (see caverns(seed)).
+   */
+  private GameState(long seed, boolean useGui, boolean verbose) {
+    this(seed, caverns(seed), useGui, verbose);
+  }
+
+  /**
+   * Constructor: an instance whose caverns have size (rows, cols), with randomness
+   * from rand, which was seeded with seed, and otherwise as
+   * GameState(seed, useGui, verbose).
+   */
+  private GameState(long seed, Random rand, int rows, int cols, boolean useGui,
+                    boolean verbose) {
+    this(seed, digCaverns(rand, rows, cols), useGui, verbose);
+  }
+
+  /**
+   * Constructor: an instance with the explore and escape caverns of caverns,
+   * which are those of seed seed, and otherwise as GameState(seed, useGui, verbose).
+   */
+  private GameState(long seed, Pair<Cavern, Cavern> caverns, boolean useGui,
+                    boolean verbose) {
+    exploreCavern = caverns.getFirst();
     minTimeToExplore = exploreCavern.minPathLengthToTarget(exploreCavern.getEntrance());
-    Tile orbTile = exploreCavern.getTarget().getTile();
-    escapeCavern = Cavern.digEscapeCavern(rows, cols, orbTile.getRow(), orbTile.getColumn(), rand);
+    escapeCavern = caverns.getSecond();
 
     position = exploreCavern.getEntrance();
     stepsTaken = 0;
@@ -94,19 +132,99 @@ public class GameState implements ExplorationState, EscapeState {
     stage = Stage.EXPLORE;
 
     this.seed = seed;
+    this.verbose = verbose;
 
     if (useGui) {
-      gui = Optional.of(new GUI(exploreCavern, position.getTile().getRow(),
-                                 position.getTile().getColumn(), seed));
+      events = Optional.of(startGui(exploreCavern, position, seed));
     } else {
-      gui = Optional.empty();
+      events = Optional.empty();
+    }
+  }
+
+  /**
+   * Return the explore and escape caverns of the game with seed seed: loaded from
+   * the cavern cache if there is one (which stores them if they are not there yet),
+   * and otherwise generated by digCaverns(seed). If the cache cannot store them,
+   * they are used anyway.
+   */
+  private static Pair<Cavern, Cavern> caverns(long seed) {
+    CavernCache cache = cavernCache;
+    if (cache != null) {
+      try {
+        return cache.get(seed);
+      } catch (IOException e) {
+        System.err.println("Could not cache the caverns of seed " + seed + ": " + e);
+      }
     }
+    return digCaverns(seed);
+  }
+
+  /**
+   * Return the explore and escape caverns of the game with seed seed, generated from
+   * a Random seeded with seed, of which the size of the caverns is the first thing
+   * drawn. Node ids are allocated per game, so the same seed always gives the same
+   * caverns, whatever else runs concurrently.
+   */
+  static Pair<Cavern, Cavern> digCaverns(long seed) {
+    Random rand = new Random(seed);
+    int rows = rand.nextInt(MAX_ROWS - MIN_ROWS + 1) + MIN_ROWS;
+    int cols = rand.nextInt(MAX_COLS - MIN_COLS + 1) + MIN_COLS;
+    return digCaverns(rand, rows, cols);
+  }
+
+  /**
+   * Return explore and escape caverns of size (rows, cols), with randomness from rand.
+   */
+  private static Pair<Cavern, Cavern> digCaverns(Random rand, int rows, int cols) {
+    AtomicLong freshIds = new AtomicLong();
+    Cavern explore = Cavern.digExploreCavern(rows, cols, rand, freshIds);
+    Tile orbTile = explore.getTarget().getTile();
+    Cavern escape = Cavern.digEscapeCavern(rows, cols, orbTile.getRow(), orbTile.getColumn(),
+                                           rand, freshIds);
+    return new Pair<>(explore, escape);
+  }
+
+  /**
+   * Make seeded games load their caverns from cache, storing them there if they are
+   * not there yet; or, if cache is null, generate them (the default).
+   * Either way a seed gives the same caverns.
+   */
+  public static void setCavernCache(CavernCache cache) {
+    cavernCache = cache;
+  }
+
+  /**
+   * Return the cache seeded games load their caverns from, or null if they generate them.
+   */
+  public static CavernCache getCavernCache() {
+    return cavernCache;
+  }
+
+  /**
+   * Open a GUI on cavern with the explorer at start, showing seed seed, and return
+   * the ring of events that it shows. The GUI shows the events at animation speed
+   * on a thread of its own, so the game itself is held up only if it gets
+   * EVENT_CAPACITY events ahead of the GUI.
+   */
+  private static GameEventRing startGui(Cavern cavern, Node start, long seed) {
+    GameEventRing ring = new GameEventRing(EVENT_CAPACITY);
+    GUI gui = new GUI(cavern, start.getTile().getRow(), start.getTile().getColumn(), seed);
+    gui.play(ring);
+    return ring;
   }
 
   /**
    * Start running a new game.
    */
   public static int runNewGame(long seed, boolean useGui) {
+    return runNewGame(seed, useGui, null);
+  }
+
+  /**
+   * Start running a new game, adding statistics on the explorer's calls to
+   * stats unless it is null.
+   */
+  public static int runNewGame(long seed, boolean useGui, GameStats stats) {
     GameState state;
     if (seed != 0) {
       state = new GameState(seed, useGui);
@@ -114,20 +232,140 @@ public class GameState implements ExplorationState, EscapeState {
       state = new GameState(useGui);
     }
     System.out.println("Seed : " + state.seed);
-    state.run();
+    state.runMeasured(stats);
     return state.getScore();
   }
 
+  /**
+   * Start running a new game, without a GUI, in caverns of size (rows, cols), and add
+   * statistics on the explorer's calls to stats unless it is null.
+   * The size need not lie within the bounds of normal games: this is the large-grid
+   * mode for stress-testing explorers on huge caverns (10,000 by 10,000 cells, say),
+   * which is feasible because a cavern stores nodes only for its open cells.
+   * A seed gives the same caverns on every run of a given size, but not the caverns
+   * it gives a normal game, whose size is drawn from the seed.
+   * Throw an IllegalArgumentException if rows is less than 8, cols is less than 12,
+   * or the caverns would have more than Integer.MAX_VALUE cells.
+   */
+  public static int runNewGame(long seed, int rows, int cols, GameStats stats) {
+    if (rows < MIN_ROWS || cols < MIN_COLS || (long) rows * cols > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Bad cavern size: " + rows + "x" + cols);
+    }
+    long gameSeed = (seed != 0 ? seed : new Random().nextLong());
+    GameState state = new GameState(gameSeed, new Random(gameSeed), rows, cols, false, true);
+    System.out.println("Seed : " + state.seed);
+    state.runMeasured(stats);
+    return state.getScore();
+  }
+
+  /**
+   * Run a new game with seed seed, without a GUI and without writing to the console,
+   * and return its result. Games run this way share no mutable state, so any number
+   * of them can run at the same time on different threads.
+   */
+  public static GameResult runHeadlessGame(long seed) {
+    long start = System.nanoTime();
+    GameState state = new GameState(seed, false, false);
+    state.run();
+    return state.result(System.nanoTime() - start);
+  }
+
+  /**
+   * As runHeadlessGame(seed), but also record every call the explorer makes to
+   * moveTo() and pickUpGold() in logFile, which is replaced if it exists.
+   * Throw an IOException if the log cannot be written.
+   */
+  public static GameResult runHeadlessGame(long seed, Path logFile) throws IOException {
+    return runHeadlessGame(seed, logFile, null);
+  }
+
+  /**
+   * As runHeadlessGame(seed, logFile), but record the game only if logFile is not
+   * null, and add statistics on the explorer's calls to stats unless it is null.
+   */
+  public static GameResult runHeadlessGame(long seed, Path logFile, GameStats stats)
+      throws IOException {
+    long start = System.nanoTime();
+    GameState state = new GameState(seed, false, false);
+    if (logFile == null) {
+      state.runMeasured(stats);
+    } else {
+      try (GameLog.Writer writer = new GameLog.Writer(logFile, seed)) {
+        state.recorder = Optional.of(writer);
+        state.runMeasured(stats);
+      }
+    }
+    return state.result(System.nanoTime() - start);
+  }
+
+  /**
+   * Return a new game with seed seed, without a GUI and without writing to the
+   * console, that is ready to explore from the entrance but has not started running,
+   * so that its ExplorationState methods can be called directly (as by benchmarks).
+   */
+  static GameState newHeadlessGame(long seed) {
+    return new GameState(seed, false, false);
+  }
+
+  /**
+   * Play back the game recorded in log, without running any explorer code, and
+   * return its result, whose time is the time taken by the recorded game.
+   * Show the game on a GUI only if useGui is true.
+   * Moves are checked as they are made, so a log that does not fit the caverns
+   * of its seed ends its phase with an error, just as a bad explorer would.
+   */
+  public static GameResult replay(GameLog log, boolean useGui) {
+    return prepareReplay(log, useGui).get();
+  }
+
+  /**
+   * Return a supplier that plays back the game recorded in log, as replay(log, useGui)
+   * does, when it is called (once). The caverns are loaded or generated now (see
+   * caverns(seed)), so that timing the supplier times only the moves played back.
+   */
+  public static Supplier<GameResult> prepareReplay(GameLog log, boolean useGui) {
+    GameState state = new GameState(log.getSeed(), useGui, false);
+    state.replay = Optional.of(log.cursor());
+    return () -> {
+      state.run();
+      return state.result(log.getExploreNanos() + log.getEscapeNanos());
+    };
+  }
+
+  /**
+   * Return the result of this game, which took nanos nanoseconds.
+   */
+  private GameResult result(long nanos) {
+    return new GameResult(seed, getScore(), getGoldCollected(), computeBonusFactor(),
+        exploreSucceeded, escapeSucceeded, exploreErrored || escapeErrored, nanos);
+  }
+
+  /**
+   * Run the game, adding statistics on the explorer's calls to into unless it is null.
+   * The calls are measured into statistics of this game's own, so that games running
+   * at the same time do not contend for into until they end.
+   */
+  private void runMeasured(GameStats into) {
+    if (into == null) {
+      run();
+      return;
+    }
+    stats = Optional.of(new GameStats());
+    run();
+    stats.get().recordGame();
+    into.add(stats.get());
+  }
+
   /**
    * Run the game: first find the Orb and then escape.
    */
   private void run() {
     // TODO: In the error cases we should really pop something up!
     explore();
-    if (!exploreSucceeded) {
-      return;
+    if (exploreSucceeded) {
+      escape();
     }
-    escape();
+    events.ifPresent(GameEventRing::close);
   }
 
   void explore() {
@@ -135,24 +373,39 @@ public class GameState implements ExplorationState, EscapeState {
     stepsTaken = 0;
     exploreSucceeded = false;
     position = exploreCavern.getEntrance();
-    gui.ifPresent((g) -> g.setLighting(false));
-    gui.ifPresent((g) -> g.updateCavern(exploreCavern, 0));
-    gui.ifPresent((g) -> g.moveTo(position));
+    events.ifPresent((r) -> r.put(GameEvent.lighting(false)));
+    events.ifPresent((r) -> r.put(GameEvent.cavern(exploreCavern, 0)));
+    events.ifPresent((r) -> r.put(GameEvent.move(position)));
+    recorder.ifPresent((r) -> r.record(GameLog.EXPLORE));
 
     try {
-      explorer.explore(this);
+      if (replay.isPresent()) {
+        replayPhase(replay.get(), GameLog.EXPLORE);
+      } else if (stats.isPresent()) {
+        long start = System.nanoTime();
+        try {
+          explorer.explore(new InstrumentedState(this, stats.get()));
+        } finally {
+          stats.get().recordPhase(System.nanoTime() - start);
+        }
+      } else {
+        explorer.explore(this);
+      }
       if (position.equals(exploreCavern.getTarget())) {
         exploreSucceeded = true;
       } else {
-        output(gui, "Your solution to explore returned at the wrong location.");
+        output("Your solution to explore returned at the wrong location.");
       }
     } catch (Throwable t) {
-      output(gui, "Your code caused an error  during the explore phase." 
+      recorder.ifPresent((r) -> r.record(GameLog.ERROR));
+      output("Your code caused an error  during the explore phase." 
           + " Please see console output.");
-      System.err.println("We will move on to the escape phase anyway,"
-          + " but your solution is not correct!");
-      System.err.println("Here is the error that occurred.");
-      t.printStackTrace();
+      if (verbose) {
+        System.err.println("We will move on to the escape phase anyway,"
+            + " but your solution is not correct!");
+        System.err.println("Here is the error that occurred.");
+        t.printStackTrace();
+      }
       exploreErrored = true;
     }
   }
@@ -165,27 +418,46 @@ public class GameState implements ExplorationState, EscapeState {
       timeRemaining = computeTimeToEscape();
     } else {
       timeRemaining = escapeCavern.minPathLengthToTarget(position);
-      gui.ifPresent((g) -> g.moveTo(position));
+      events.ifPresent((r) -> r.put(GameEvent.move(position)));
     }
 
-    gui.ifPresent((g) -> g.setLighting(true));
-    gui.ifPresent((g) -> g.updateCavern(escapeCavern, timeRemaining));
+    events.ifPresent((r) -> r.put(GameEvent.lighting(true)));
+    events.ifPresent((r) -> r.put(GameEvent.cavern(escapeCavern, timeRemaining)));
+    recorder.ifPresent((r) -> r.record(GameLog.ESCAPE));
 
     try {
-      explorer.escape(this);
+      if (replay.isPresent()) {
+        replayPhase(replay.get(), GameLog.ESCAPE);
+      } else if (stats.isPresent()) {
+        long start = System.nanoTime();
+        try {
+          explorer.escape(new InstrumentedState(this, stats.get()));
+        } finally {
+          stats.get().recordPhase(System.nanoTime() - start);
+        }
+      } else {
+        explorer.escape(this);
+      }
       if (position.equals(escapeCavern.getTarget())) {
         escapeSucceeded = true;
       }
     } catch (OutOfTimeException e) {
-      output(gui, "Your solution to escape ran out of steps before returning!");
+      recorder.ifPresent((r) -> r.record(GameLog.OUT_OF_TIME));
+      output("Your solution to escape ran out of steps before returning!");
     } catch (Throwable t) {
-      output(gui, "Your code caused an error during the escape phase. Please see console output.");
-      t.printStackTrace();
+      recorder.ifPresent((r) -> r.record(GameLog.ERROR));
+      output("Your code caused an error during the escape phase. Please see console output.");
+      if (verbose) {
+        t.printStackTrace();
+      }
       escapeErrored = true;
     }
 
     if (!escapeSucceeded) {
-      output(gui, "Your solution to escape failed to end at the stairs. Your code is not correct!");
+      output("Your solution to escape failed to end at the stairs. Your code is not correct!");
+    }
+    if (!verbose) {
+      return;
     }
     System.out.println("Gold collected   : " + getGoldCollected());
     DecimalFormat df = new DecimalFormat("#.##");
@@ -193,6 +465,47 @@ public class GameState implements ExplorationState, EscapeState {
     System.out.println("Score            : " + getScore());
   }
 
+  /**
+   * Make the calls recorded in log for the phase that starts with record phase,
+   * in place of the explorer. Throw an exception where the explorer did.
+   */
+  private void replayPhase(GameLog.Cursor log, byte phase) {
+    if (!log.next() || log.tag() != phase) {
+      throw new IllegalStateException("The game log does not match the game");
+    }
+    while (log.peekTag() != GameLog.ESCAPE && log.next()) {
+      switch (log.tag()) {
+        case GameLog.MOVE:
+          if (stage == Stage.EXPLORE) {
+            moveTo(log.id());
+          } else {
+            moveTo(neighbourWithId(log.id()));
+          }
+          break;
+        case GameLog.GOLD:
+          pickUpGold();
+          break;
+        case GameLog.OUT_OF_TIME:
+          throw new OutOfTimeException();
+        default:
+          throw new ReplayedException();
+      }
+    }
+  }
+
+  /**
+   * Return the neighbour of the current position with id id.
+   * Throw an IllegalArgumentException if there is none.
+   */
+  private Node neighbourWithId(long id) {
+    for (Node n : position.getNeighbours()) {
+      if (n.getId() == id) {
+        return n;
+      }
+    }
+    throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+  }
+
   /**
    * Return the time to escape.
    */
@@ -230,8 +543,9 @@ public class GameState implements ExplorationState, EscapeState {
       if (n.getId() == id) {
         position = n;
         stepsTaken++;
-        gui.ifPresent((g) -> g.updateBonus(computeBonusFactor()));
-        gui.ifPresent((g) -> g.moveTo(n));
+        recorder.ifPresent((r) -> r.recordMove(id));
+        events.ifPresent((r) -> r.put(GameEvent.bonus(computeBonusFactor())));
+        events.ifPresent((r) -> r.put(GameEvent.move(n)));
         return;
       }
     }
@@ -259,8 +573,9 @@ public class GameState implements ExplorationState, EscapeState {
     if (position.getNeighbours().contains(n)) {
       position = n;
       timeRemaining -= distance;
-      gui.ifPresent((g) -> g.updateTimeRemaining(timeRemaining));
-      gui.ifPresent((g) -> g.moveTo(n));
+      recorder.ifPresent((r) -> r.recordMove(n.getId()));
+      events.ifPresent((r) -> r.put(GameEvent.timeRemaining(timeRemaining)));
+      events.ifPresent((r) -> r.put(GameEvent.move(n)));
     } else {
       throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
     }
@@ -289,17 +604,39 @@ public class GameState implements ExplorationState, EscapeState {
       throw new IllegalStateException("getNeighbours() can only be called while exploring!");
     }
 
-    Collection<NodeStatus> options = new ArrayList<>();
-    for (Node n : position.getNeighbours()) {
-      int distance = computeDistanceToTarget(n.getTile().getRow(), n.getTile().getColumn());
-      options.add(new NodeStatus(n.getId(), distance));
+    CompactGraph g = exploreCavern.getAdjacency();
+    NodeStatus[] statuses = exploreCavern.getNodeStatuses();
+    int o = position.getOrdinal();
+    Collection<NodeStatus> options = new ArrayList<>(g.degree(o));
+    for (int k = g.firstArc(o); k < g.endArc(o); k++) {
+      options.add(statuses[g.target(k)]);
     }
     return options;
   }
 
-  private int computeDistanceToTarget(int row, int col) {
-    return Math.abs(row - exploreCavern.getTarget().getTile().getRow())
-             + Math.abs(col - exploreCavern.getTarget().getTile().getColumn());
+  /**
+   * Puts the NodeStatus objects of the neighbours of the current location into
+   * buffer[0..], without allocating anything, and returns how many there are.
+   * The statuses are computed once per cavern and shared between calls.
+   */
+  @Override
+  public int getNeighbours(NodeStatus[] buffer) {
+    if (stage != Stage.EXPLORE) {
+      throw new IllegalStateException("getNeighbours() can only be called while exploring!");
+    }
+
+    CompactGraph g = exploreCavern.getAdjacency();
+    NodeStatus[] statuses = exploreCavern.getNodeStatuses();
+    int o = position.getOrdinal();
+    if (g.degree(o) > buffer.length) {
+      throw new IllegalArgumentException("getNeighbours: buffer must hold "
+          + g.degree(o) + " statuses");
+    }
+    int count = 0;
+    for (int k = g.firstArc(o); k < g.endArc(o); k++) {
+      buffer[count++] = statuses[g.target(k)];
+    }
+    return count;
   }
 
   /**
@@ -311,7 +648,7 @@ public class GameState implements ExplorationState, EscapeState {
       throw new IllegalStateException("getDistanceToTarget() can only be called while exploring!");
     }
 
-    return computeDistanceToTarget(position.getTile().getRow(), position.getTile().getColumn());
+    return exploreCavern.getNodeStatuses()[position.getOrdinal()].getDistanceToTarget();
   }
 
   @Override
@@ -349,7 +686,8 @@ public class GameState implements ExplorationState, EscapeState {
       throw new IllegalStateException("pickUpGold: Error, no gold on this tile");
     }
     goldCollected += position.getTile().takeGold();
-    gui.ifPresent((g) -> g.updateCoins(goldCollected, getScore()));
+    recorder.ifPresent((r) -> r.record(GameLog.GOLD));
+    events.ifPresent((r) -> r.put(GameEvent.gold(position, goldCollected, getScore())));
   }
 
   @Override
@@ -389,9 +727,11 @@ public class GameState implements ExplorationState, EscapeState {
     return escapeErrored;
   }
 
-  private void output(Optional<GUI> gui, String s) {
-    System.err.println(s);
-    gui.ifPresent((g) -> g.displayError(s));
+  private void output(String s) {
+    if (verbose) {
+      System.err.println(s);
+    }
+    events.ifPresent((r) -> r.put(GameEvent.error(s)));
   }
 
   private enum Stage {
@@ -401,4 +741,14 @@ public class GameState implements ExplorationState, EscapeState {
   @SuppressWarnings("serial")
   private static class OutOfTimeException extends RuntimeException {
   }
+
+  /**
+   * Thrown when playing back a game log in which the explorer threw an exception.
+   */
+  @SuppressWarnings("serial")
+  private static class ReplayedException extends RuntimeException {
+    ReplayedException() {
+      super("The recorded explorer threw an exception here");
+    }
+  }
 }
@@ -0,0 +1,165 @@
+package game;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An instance collects statistics on how explorers spent their time in one or more
+ * games: how often each method of ExplorationState and EscapeState was called, how
+ * long each call took (in a LatencyHistogram per method), and how the time inside
+ * Explorer.explore() and Explorer.escape() divides between the explorer's own code
+ * and the engine's (the calls).
+ *
+ * <p>A game fills in a GameStats of its own and adds it to the caller's with add(),
+ * which is the only method that may be called while other threads use an instance.</p>
+ */
+public final class GameStats {
+  /**
+   * An enum representing the methods of ExplorationState and EscapeState.
+   */
+  public enum Call {
+    GET_CURRENT_LOCATION("getCurrentLocation"),
+    GET_NEIGHBOURS("getNeighbours"),
+    GET_DISTANCE_TO_TARGET("getDistanceToTarget"),
+    MOVE_TO_ID("moveTo(long)"),
+    GET_CURRENT_NODE("getCurrentNode"),
+    GET_EXIT("getExit"),
+    GET_VERTICES("getVertices"),
+    MOVE_TO_NODE("moveTo(Node)"),
+    PICK_UP_GOLD("pickUpGold"),
+    GET_TIME_REMAINING("getTimeRemaining");
+
+    private final String method;
+
+    /**
+     * Constructor: an instance for the method called m.
+     */
+    private Call(String m) {
+      method = m;
+    }
+
+    /**
+     * Return the name of the method.
+     */
+    public String getMethod() {
+      return method;
+    }
+  }
+
+  private final Map<Call, LatencyHistogram> latencies = new EnumMap<>(Call.class);
+  private long phaseNanos;
+  private int games;
+
+  /**
+   * Constructor: statistics on no games.
+   */
+  public GameStats() {
+    for (Call c : Call.values()) {
+      latencies.put(c, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Record a call c that took nanos nanoseconds.
+   */
+  void record(Call c, long nanos) {
+    latencies.get(c).record(nanos);
+  }
+
+  /**
+   * Record that the explorer spent nanos nanoseconds in explore() or escape().
+   */
+  void recordPhase(long nanos) {
+    phaseNanos += nanos;
+  }
+
+  /**
+   * Record that a game ended.
+   */
+  void recordGame() {
+    games++;
+  }
+
+  /**
+   * Add the statistics of other to these.
+   */
+  public synchronized void add(GameStats other) {
+    for (Call c : Call.values()) {
+      latencies.get(c).add(other.latencies.get(c));
+    }
+    phaseNanos += other.phaseNanos;
+    games += other.games;
+  }
+
+  /**
+   * Return the number of games.
+   */
+  public synchronized int getGames() {
+    return games;
+  }
+
+  /**
+   * Return the number of calls to c.
+   */
+  public synchronized long getCount(Call c) {
+    return latencies.get(c).getCount();
+  }
+
+  /**
+   * Return the latencies of the calls to c. The histogram must not be changed.
+   */
+  public synchronized LatencyHistogram getLatencies(Call c) {
+    return latencies.get(c);
+  }
+
+  /**
+   * Return the time spent in explore() and escape(), in nanoseconds.
+   */
+  public synchronized long getPhaseNanos() {
+    return phaseNanos;
+  }
+
+  /**
+   * Return the time spent in explore() and escape() inside calls to the engine,
+   * in nanoseconds.
+   */
+  public synchronized long getEngineNanos() {
+    long total = 0;
+    for (LatencyHistogram h : latencies.values()) {
+      total += h.getTotal();
+    }
+    return total;
+  }
+
+  /**
+   * Return the time spent in explore() and escape() outside calls to the engine,
+   * in nanoseconds.
+   */
+  public synchronized long getExplorerNanos() {
+    return phaseNanos - getEngineNanos();
+  }
+
+  /**
+   * Print a summary table of these statistics on out. Latencies are in microseconds.
+   */
+  public synchronized void print(PrintStream out) {
+    DecimalFormat df = new DecimalFormat("#.##");
+    out.println("Games            : " + games);
+    out.println(String.format("%-22s%12s%10s%10s%10s%10s%10s", "Call (us)", "count",
+        "mean", "p50", "p90", "p99", "max"));
+    for (Call c : Call.values()) {
+      LatencyHistogram h = latencies.get(c);
+      if (h.getCount() == 0) {
+        continue;
+      }
+      out.println(String.format("%-22s%12d%10s%10s%10s%10s%10s", c.getMethod(), h.getCount(),
+          df.format(h.getMean() / 1e3), df.format(h.getValueAtPercentile(50) / 1e3),
+          df.format(h.getValueAtPercentile(90) / 1e3),
+          df.format(h.getValueAtPercentile(99) / 1e3), df.format(h.getMax() / 1e3)));
+    }
+    out.println("Explorer time (ms): " + df.format(getExplorerNanos() / 1e6));
+    out.println("Engine time (ms)  : " + df.format(getEngineNanos() / 1e6));
+  }
+}
@@ -0,0 +1,70 @@
+package game;
+
+/**
+ * An instance gives the number of hops (edges, whatever their lengths) on a
+ * shortest walk from a root to every node of a cavern, as found by a breadth-first
+ * search. It answers reachability and hop-distance questions without the cost of
+ * the edge lengths, which a ShortestPathTree pays for.
+ */
+public final class HopCounts {
+  /** Hop count of a node that cannot be reached from the root. */
+  public static final int UNREACHABLE = ParallelBfs.UNREACHED;
+
+  private final CompactGraph graph;
+  private final int root;
+  /** hops[o] is the number of hops from the root to ordinal o, or UNREACHABLE. */
+  private final int[] hops;
+  private final int reachable;
+  private final int maxHops;
+
+  /**
+   * Constructor: the hop counts hps of graph g from ordinal r.
+   */
+  HopCounts(CompactGraph g, int r, int[] hps) {
+    graph = g;
+    root = r;
+    hops = hps;
+    int count = 0;
+    int max = 0;
+    for (int h : hops) {
+      if (h != UNREACHABLE) {
+        count++;
+        max = Math.max(max, h);
+      }
+    }
+    reachable = count;
+    maxHops = max;
+  }
+
+  /**
+   * Return the root of these hop counts.
+   */
+  public Node getRoot() {
+    return graph.node(root);
+  }
+
+  /**
+   * Return the number of hops from the root to n, or UNREACHABLE if there is no walk.
+   * Throw an IllegalArgumentException if n is not in the cavern of these hop counts.
+   */
+  public int hopsTo(Node n) {
+    if (n.getGraph() != graph) {
+      throw new IllegalArgumentException("Node must be in the cavern of these hop counts");
+    }
+    return hops[n.getOrdinal()];
+  }
+
+  /**
+   * Return the number of nodes that can be reached from the root (including the root).
+   */
+  public int getReachableCount() {
+    return reachable;
+  }
+
+  /**
+   * Return the largest number of hops from the root to a node that can be reached.
+   */
+  public int getMaxHops() {
+    return maxHops;
+  }
+}
@@ -0,0 +1,235 @@
+package game;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An instance is a priority queue of int elements in [0..capacity-1] with int priorities,
+ * implemented as a d-ary min-heap.
+ *
+ * <p>Unlike InternalMinHeap, nothing is boxed or hashed: the heap is held in two parallel
+ * int arrays and the position of each element is found in a third array indexed by the
+ * element itself. This makes it a good fit for searches over the dense node ordinals of a
+ * CompactGraph. An arity of 4 usually beats a binary heap, as the tree is half as deep and
+ * the children of a node share a cache line.</p>
+ */
+class IndexedMinHeap {
+  /** The default number of children of each heap node. */
+  static final int DEFAULT_ARITY = 4;
+  /** Position of an element that is not in the heap. */
+  private static final int ABSENT = -1;
+
+  private final int arity;
+  private int size; // number of elements in the priority queue (and heap)
+
+  /**
+   * The heap invariant is given below. Note that / denotes int division.
+   *
+   * <p>heap[0..size-1] is viewed as a d-ary min-heap, with d = arity, i.e.
+   * 1. Each array element in heap[0..size-1] contains an element of the queue.
+   * 2. The children of each heap[i] are heap[d*i+1] .. heap[d*i+d].
+   * 3. The parent of each heap[i] (except heap[0]) is heap[(i-1)/d].
+   * 4. keys[i] is the priority of heap[i].
+   * 5. The priority of the parent of each heap[i] is <= the priority of heap[i].
+   * 6. pos[e] is the index of e in heap if e is in the queue, and ABSENT otherwise.</p>
+   */
+  private final int[] heap;
+  private final int[] keys;
+  private final int[] pos;
+
+  /**
+   * Constructor: an empty 4-ary heap for elements in [0..capacity-1].
+   */
+  IndexedMinHeap(int capacity) {
+    this(capacity, DEFAULT_ARITY);
+  }
+
+  /**
+   * Constructor: an empty heap for elements in [0..capacity-1] in which
+   * every node has up to d children.
+   * Throw an IllegalArgumentException if d < 2.
+   */
+  IndexedMinHeap(int capacity, int d) {
+    if (d < 2) {
+      throw new IllegalArgumentException("A heap needs an arity of at least 2");
+    }
+    arity = d;
+    heap = new int[capacity];
+    keys = new int[capacity];
+    pos = new int[capacity];
+    Arrays.fill(pos, ABSENT);
+  }
+
+  /**
+   * Return the number of elements in the priority queue.
+   * This operation takes constant time.
+   */
+  int size() {
+    return size;
+  }
+
+  /** Return true iff the heap is empty. */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Return true iff e is in the priority queue.
+   */
+  boolean contains(int e) {
+    return pos[e] != ABSENT;
+  }
+
+  /**
+   * Remove every element from the priority queue, so that it can be reused.
+   * This takes time proportional to the number of elements removed.
+   */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      pos[heap[i]] = ABSENT;
+    }
+    size = 0;
+  }
+
+  /**
+   * Add e with priority p to the priority queue.
+   * Throw an IllegalArgumentException if e is already in the queue.
+   * The worst-case time is O(log N).
+   */
+  void add(int e, int p) {
+    if (pos[e] != ABSENT) {
+      throw new IllegalArgumentException("Cannot insert the same element twice");
+    }
+    size++;
+    bubbleUp(size - 1, e, p);
+  }
+
+  /**
+   * Return the element of the priority queue with lowest priority, without
+   * changing the queue. This operation takes constant time.
+   * Throw a NoSuchElementException if the priority queue is empty.
+   */
+  int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return heap[0];
+  }
+
+  /**
+   * Return the lowest priority in the priority queue.
+   * Throw a NoSuchElementException if the priority queue is empty.
+   */
+  int peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return keys[0];
+  }
+
+  /**
+   * Remove and return the element of the priority queue with lowest priority.
+   * The worst-case time is O(d log N / log d).
+   * Throw a NoSuchElementException if the priority queue is empty.
+   */
+  int poll() {
+    int val = peek();
+    pos[val] = ABSENT;
+    size--;
+    if (size > 0) {
+      bubbleDown(0, heap[size], keys[size]);
+    }
+    return val;
+  }
+
+  /**
+   * Change the priority of element e to p.
+   * The worst-case time is O(d log N / log d).
+   * Throw an IllegalArgumentException if e is not in the priority queue.
+   */
+  void changePriority(int e, int p) {
+    int i = pos[e];
+    if (i == ABSENT) {
+      throw new IllegalArgumentException("No element found: " + e);
+    }
+    if (p < keys[i]) {
+      bubbleUp(i, e, p);
+    } else {
+      bubbleDown(i, e, p);
+    }
+  }
+
+  /**
+   * Add e with priority p if it is not in the priority queue, and otherwise
+   * lower its priority to p if that is smaller than its current priority.
+   * Return true iff the queue changed.
+   */
+  boolean addOrDecrease(int e, int p) {
+    int i = pos[e];
+    if (i == ABSENT) {
+      size++;
+      bubbleUp(size - 1, e, p);
+      return true;
+    }
+    if (p < keys[i]) {
+      bubbleUp(i, e, p);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Put element e with priority p into heap[k] and bubble it up to its right place.
+   * Precondition: Every heap[i] other than heap[k] satisfies the heap property,
+   * and p is no larger than the priority that heap[k] had (if any).
+   */
+  private void bubbleUp(int k, int e, int p) {
+    int i = k;
+    while (i > 0) {
+      int parentIdx = (i - 1) / arity;
+      if (keys[parentIdx] <= p) {
+        break;
+      }
+      heap[i] = heap[parentIdx];
+      keys[i] = keys[parentIdx];
+      pos[heap[i]] = i;
+      i = parentIdx;
+    }
+    heap[i] = e;
+    keys[i] = p;
+    pos[e] = i;
+  }
+
+  /**
+   * Put element e with priority p into heap[k] and bubble it down until it
+   * finds its right place.
+   * Precondition: Every heap[i] other than heap[k] satisfies the heap property,
+   * and p is no smaller than the priority that heap[k] had.
+   */
+  private void bubbleDown(int k, int e, int p) {
+    int i = k;
+    while (true) {
+      int first = arity * i + 1;
+      if (first >= size) {
+        break;
+      }
+      int last = Math.min(first + arity, size);
+      int childIdx = first;
+      for (int c = first + 1; c < last; c++) {
+        if (keys[c] < keys[childIdx]) {
+          childIdx = c;
+        }
+      }
+      if (p <= keys[childIdx]) {
+        break;
+      }
+      heap[i] = heap[childIdx];
+      keys[i] = keys[childIdx];
+      pos[heap[i]] = i;
+      i = childIdx;
+    }
+    heap[i] = e;
+    keys[i] = p;
+    pos[e] = i;
+  }
+}
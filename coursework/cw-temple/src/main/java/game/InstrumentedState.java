@@ -0,0 +1,131 @@
+package game;
+
+import java.util.Collection;
+
+/**
+ * An instance is what an explorer is given in place of a GameState whose calls
+ * are being measured: it passes each call on to the GameState and records the
+ * call, and how long it took, in a GameStats.
+ */
+final class InstrumentedState implements ExplorationState, EscapeState {
+  private final GameState state;
+  private final GameStats stats;
+
+  /**
+   * Constructor: an instance that passes calls on to st, recording them in sts.
+   */
+  InstrumentedState(GameState st, GameStats sts) {
+    state = st;
+    stats = sts;
+  }
+
+  @Override
+  public long getCurrentLocation() {
+    long start = System.nanoTime();
+    try {
+      return state.getCurrentLocation();
+    } finally {
+      stats.record(GameStats.Call.GET_CURRENT_LOCATION, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Collection<NodeStatus> getNeighbours() {
+    long start = System.nanoTime();
+    try {
+      return state.getNeighbours();
+    } finally {
+      stats.record(GameStats.Call.GET_NEIGHBOURS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public int getNeighbours(NodeStatus[] buffer) {
+    long start = System.nanoTime();
+    try {
+      return state.getNeighbours(buffer);
+    } finally {
+      stats.record(GameStats.Call.GET_NEIGHBOURS, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public int getDistanceToTarget() {
+    long start = System.nanoTime();
+    try {
+      return state.getDistanceToTarget();
+    } finally {
+      stats.record(GameStats.Call.GET_DISTANCE_TO_TARGET, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void moveTo(long id) {
+    long start = System.nanoTime();
+    try {
+      state.moveTo(id);
+    } finally {
+      stats.record(GameStats.Call.MOVE_TO_ID, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Node getCurrentNode() {
+    long start = System.nanoTime();
+    try {
+      return state.getCurrentNode();
+    } finally {
+      stats.record(GameStats.Call.GET_CURRENT_NODE, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Node getExit() {
+    long start = System.nanoTime();
+    try {
+      return state.getExit();
+    } finally {
+      stats.record(GameStats.Call.GET_EXIT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Collection<Node> getVertices() {
+    long start = System.nanoTime();
+    try {
+      return state.getVertices();
+    } finally {
+      stats.record(GameStats.Call.GET_VERTICES, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void moveTo(Node n) {
+    long start = System.nanoTime();
+    try {
+      state.moveTo(n);
+    } finally {
+      stats.record(GameStats.Call.MOVE_TO_NODE, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void pickUpGold() {
+    long start = System.nanoTime();
+    try {
+      state.pickUpGold();
+    } finally {
+      stats.record(GameStats.Call.PICK_UP_GOLD, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public int getTimeRemaining() {
+    long start = System.nanoTime();
+    try {
+      return state.getTimeRemaining();
+    } finally {
+      stats.record(GameStats.Call.GET_TIME_REMAINING, System.nanoTime() - start);
+    }
+  }
+}
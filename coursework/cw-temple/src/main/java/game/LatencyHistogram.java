@@ -0,0 +1,119 @@
+package game;
+
+/**
+ * An instance counts latencies (in nanoseconds) in log-linear buckets, in the
+ * manner of HdrHistogram: each power of two is split into SUB_BUCKETS equal
+ * buckets, so a recorded value is known to within 1/SUB_BUCKETS of itself,
+ * whatever its size, using a fixed array of 960 counts.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  /** The number of buckets each power of two is split into. */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long total;
+  private long max;
+
+  /**
+   * Add one latency of nanos nanoseconds (0 if it is negative).
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts[bucketOf(value)]++;
+    count++;
+    total += value;
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Add all the latencies of other to this histogram.
+   */
+  public void add(LatencyHistogram other) {
+    for (int b = 0; b < BUCKETS; b++) {
+      counts[b] += other.counts[b];
+    }
+    count += other.count;
+    total += other.total;
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Return the number of latencies recorded.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Return the sum of the latencies recorded, in nanoseconds.
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Return the mean latency in nanoseconds (0 if there are none).
+   */
+  public double getMean() {
+    return (count == 0 ? 0 : (double) total / count);
+  }
+
+  /**
+   * Return the largest latency recorded, in nanoseconds (0 if there are none).
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Return a latency, in nanoseconds, that at least percentile percent of the
+   * recorded latencies are no greater than: the top of the bucket in which that
+   * percentile falls, but never more than getMax(). Return 0 if there are none.
+   * Precondition: 0 <= percentile <= 100.
+   */
+  public long getValueAtPercentile(double percentile) {
+    long wanted = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int b = 0; b < BUCKETS; b++) {
+      seen += counts[b];
+      if (seen >= wanted) {
+        return Math.min(lowestValueOf(b + 1) - 1, max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Return the bucket that holds value, which must not be negative.
+   * Values below SUB_BUCKETS have a bucket each; above that, bucket
+   * g * SUB_BUCKETS + s holds the values whose top SUB_BUCKET_BITS + 1 bits
+   * are SUB_BUCKETS + s and that have g - 1 bits below those.
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int group = exponent - SUB_BUCKET_BITS + 1;
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+    return group * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Return the smallest value that falls in bucket b (Long.MAX_VALUE past the last).
+   */
+  private static long lowestValueOf(int b) {
+    if (b >= BUCKETS) {
+      return Long.MAX_VALUE;
+    }
+    int group = b / SUB_BUCKETS;
+    int sub = b % SUB_BUCKETS;
+    if (group == 0) {
+      return sub;
+    }
+    return (long) (SUB_BUCKETS + sub) << (group - 1);
+  }
+}
@@ -1,7 +1,6 @@
 package game;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -9,54 +8,55 @@ import java.util.Set;
  * An instance represents a node in the graph --the cavern.
  */
 public class Node {
-  /**
-   * The least positive fresh identifier available.
-   */
-  private static long FRESH_ID = 0;
-
   /**
    * The unique numerical identifier of this Node.
    */
   private final long id;
   /**
-   * Represents the edges outgoing from this Node.
+   * The graph this Node belongs to, which holds its outgoing edges
+   * (null if this Node is not part of a graph, e.g. a wall).
    */
-  private final Set<Edge> edges;
-  private final Set<Node> neighbours;
-
-  private final Set<Edge> unmodifiableEdges;
-  private final Set<Node> unmodifiableNeighbours;
+  private CompactGraph graph;
+  /**
+   * The dense index of this Node in graph (-1 if there is no graph).
+   */
+  private int ordinal = -1;
 
   /**
    * Extra state that belongs to this node.
    */
   private final Tile tile;
 
-  /* package */ Node(Tile t) {
-    this(FRESH_ID, t);
-  }
-
   /**
    * Constructor: an instance with id givenId and tile t.
+   * Ids are handed out by the cavern being built (there is no global counter),
+   * so that caverns can be built concurrently on different threads.
    */
   Node(long givenId, Tile t) {
     id = givenId;
-    FRESH_ID = Math.max(FRESH_ID, givenId + 1);
-    edges = new HashSet<>();
-    neighbours = new HashSet<>();
+    tile = t;
+  }
 
-    unmodifiableEdges = Collections.unmodifiableSet(edges);
-    unmodifiableNeighbours = Collections.unmodifiableSet(neighbours);
+  /**
+   * Make this Node the node with ordinal o in graph g.
+   */
+  void bind(CompactGraph g, int o) {
+    graph = g;
+    ordinal = o;
+  }
 
-    tile = t;
+  /**
+   * Return the graph this Node belongs to, or null if there is none.
+   */
+  CompactGraph getGraph() {
+    return graph;
   }
 
   /**
-   * Add edge e to the graph.
+   * Return the dense index of this Node in its graph, or -1 if there is no graph.
    */
-  void addEdge(Edge e) {
-    edges.add(e);
-    neighbours.add(e.getOther(this));
+  int getOrdinal() {
+    return ordinal;
   }
 
   /**
@@ -71,9 +71,10 @@ public class Node {
    * .     * Throw an IllegalArgumentException if there is no such edge.
    */
   public Edge getEdge(Node q) {
-    for (Edge e : edges) {
-      if (e.getDest().equals(q)) {
-        return e;
+    if (graph != null && q.graph == graph) {
+      int arc = graph.findArc(ordinal, q.ordinal);
+      if (arc >= 0) {
+        return graph.edge(ordinal, arc);
       }
     }
     throw new IllegalArgumentException("getEdge: Node must be a neighbour of this Node");
@@ -83,14 +84,14 @@ public class Node {
    * Return an unmodifiable set of Edges leaving this Node.
    */
   public Set<Edge> getExits() {
-    return unmodifiableEdges;
+    return (graph == null ? Collections.emptySet() : graph.exits(ordinal));
   }
 
   /**
    * Return an unmodifiable set Nodes neighbouring this Node.
    */
   public Set<Node> getNeighbours() {
-    return unmodifiableNeighbours;
+    return (graph == null ? Collections.emptySet() : graph.neighbours(ordinal));
   }
 
   /**
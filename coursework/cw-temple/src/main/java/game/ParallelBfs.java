@@ -0,0 +1,351 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+
+/**
+ * An instance is a level-synchronous breadth-first search over a graph in CSR form,
+ * which gives the number of hops (arcs) from a root to every node, splitting each
+ * level across the threads of a ForkJoinPool.
+ *
+ * <p>Each level is searched in one of two directions, as in Beamer's
+ * direction-optimizing BFS. Top-down, the frontier is split into chunks and the
+ * arcs leaving each frontier node are followed, a node being claimed by whichever
+ * thread first sets its bit in an atomic visited bitset. Bottom-up, the nodes are
+ * split into chunks and each unvisited node looks along its incoming arcs for a
+ * parent in the frontier, stopping at the first; no node is contended for. The
+ * search goes bottom-up once the arcs leaving the frontier exceed 1/ALPHA of those
+ * leaving unvisited nodes, and back top-down once the frontier holds fewer than
+ * 1/BETA of the nodes. Top-down levels of at most FRONTIER_CHUNK nodes, which are
+ * all the levels of a maze-like cavern, are searched on the calling thread as a plain
+ * queue-based BFS, with no chunks and no claiming.</p>
+ *
+ * <p>An instance holds no state of a search, so any number of searches may run
+ * over it at once.</p>
+ */
+public final class ParallelBfs {
+  /** Hop count of a node that cannot be reached from the root. */
+  public static final int UNREACHED = -1;
+  private static final int ALPHA = 14;
+  private static final int BETA = 24;
+  /** The number of frontier nodes in a top-down chunk. */
+  private static final int FRONTIER_CHUNK = 1024;
+  /** The number of nodes in a bottom-up chunk (a multiple of 64). */
+  private static final int NODE_CHUNK = 4096;
+
+  private final int size;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] inOffsets;
+  private final int[] inTargets;
+  /** The largest number of arcs leaving one node. */
+  private final int maxDegree;
+
+  /**
+   * Constructor: a search over the graph with offs.length - 1 nodes whose arcs
+   * leaving node u go to tgts[offs[u]..offs[u+1]-1], and whose arcs entering node v
+   * come from inTgts[inOffs[v]..inOffs[v+1]-1]. For an undirected graph, pass the
+   * same arrays twice. The arrays are not copied and must not be changed.
+   * Throw an IllegalArgumentException if the two sides differ in size.
+   */
+  public ParallelBfs(int[] offs, int[] tgts, int[] inOffs, int[] inTgts) {
+    if (offs.length != inOffs.length || tgts.length != inTgts.length) {
+      throw new IllegalArgumentException("Outgoing and incoming arcs do not match");
+    }
+    size = offs.length - 1;
+    offsets = offs;
+    targets = tgts;
+    inOffsets = inOffs;
+    inTargets = inTgts;
+    int max = 0;
+    for (int u = 0; u < size; u++) {
+      max = Math.max(max, degree(u));
+    }
+    maxDegree = max;
+  }
+
+  /**
+   * Return the number of nodes of the graph.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * As hops(root, pool), using the common pool.
+   */
+  public int[] hops(int root) {
+    return hops(root, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Return an array giving the number of hops from root to each node, or UNREACHED,
+   * searching on the threads of pool.
+   * Throw an IllegalArgumentException if root is not a node.
+   */
+  public int[] hops(int root, ForkJoinPool pool) {
+    if (root < 0 || root >= size) {
+      throw new IllegalArgumentException("No such node: " + root);
+    }
+    int[] hops = new int[size];
+    Arrays.fill(hops, UNREACHED);
+    AtomicLongArray visited = new AtomicLongArray((size + 63) >>> 6);
+    hops[root] = 0;
+
+    Chunk frontier = new Chunk(new int[] {root}, 1, 0);
+    // The arcs leaving nodes that have not been in the frontier yet.
+    long unexploredArcs = targets.length;
+    boolean bottomUp = false;
+    while (frontier.size > 0) {
+      int level = hops[frontier.nodes[0]] + 1;
+      if (!bottomUp) {
+        // The arcs leaving the frontier are counted only if they might be enough.
+        long limit = unexploredArcs / ALPHA;
+        bottomUp = (long) frontier.size * maxDegree > limit && arcsLeaving(frontier) > limit;
+      } else if (frontier.size < size / BETA) {
+        bottomUp = false;
+      }
+      if (bottomUp) {
+        frontier = bottomUpStep(frontier, level, hops, pool);
+      } else if (frontier.size <= FRONTIER_CHUNK) {
+        frontier = sequentialSteps(frontier, hops);
+      } else {
+        frontier = topDownStep(frontier, level, hops, visited, pool);
+      }
+      unexploredArcs -= frontier.arcs;
+    }
+    return hops;
+  }
+
+  /**
+   * Search top-down from frontier on this thread, level by level, until a level is
+   * too big for one chunk or there are no more. Return that level, whose arcs are
+   * those leaving all the nodes searched from (frontier and the levels after it).
+   */
+  private Chunk sequentialSteps(Chunk frontier, int[] hops) {
+    int[] queue = Arrays.copyOf(frontier.nodes, Math.max(frontier.size, FRONTIER_CHUNK));
+    int tail = frontier.size;
+    int head = 0;
+    long arcs = 0;
+    // Each pass takes the level in [head, levelEnd) and appends the next one.
+    while (true) {
+      int levelEnd = tail;
+      for (; head < levelEnd; head++) {
+        int u = queue[head];
+        int last = offsets[u + 1];
+        int next = hops[u] + 1;
+        for (int k = offsets[u]; k < last; k++) {
+          int v = targets[k];
+          if (hops[v] == UNREACHED) {
+            hops[v] = next;
+            if (tail == queue.length) {
+              queue = Arrays.copyOf(queue, 2 * tail);
+            }
+            queue[tail++] = v;
+          }
+        }
+        arcs += last - offsets[u];
+      }
+      if (tail - head > FRONTIER_CHUNK || tail == head) {
+        return new Chunk(Arrays.copyOfRange(queue, head, tail), tail - head, arcs);
+      }
+    }
+  }
+
+  /**
+   * Return the number of arcs leaving the nodes of frontier.
+   */
+  private long arcsLeaving(Chunk frontier) {
+    long arcs = 0;
+    for (int i = 0; i < frontier.size; i++) {
+      arcs += degree(frontier.nodes[i]);
+    }
+    return arcs;
+  }
+
+  /**
+   * Return the nodes at hop count level, found by following the arcs leaving
+   * frontier, the nodes at level - 1 (whose number is the arcs of the result),
+   * in parallel.
+   */
+  private Chunk topDownStep(Chunk frontier, int level, int[] hops, AtomicLongArray visited,
+                            ForkJoinPool pool) {
+    int chunks = (frontier.size + FRONTIER_CHUNK - 1) / FRONTIER_CHUNK;
+    return run(chunks, (c) -> {
+      Chunk next = new Chunk(FRONTIER_CHUNK);
+      int end = Math.min(frontier.size, (c + 1) * FRONTIER_CHUNK);
+      for (int i = c * FRONTIER_CHUNK; i < end; i++) {
+        int u = frontier.nodes[i];
+        int last = offsets[u + 1];
+        for (int k = offsets[u]; k < last; k++) {
+          int v = targets[k];
+          if (hops[v] == UNREACHED && claim(visited, v)) {
+            hops[v] = level;
+            next.add(v);
+          }
+        }
+        next.arcs += last - offsets[u];
+      }
+      return next;
+    }, pool);
+  }
+
+  /**
+   * Return the nodes at hop count level, found by looking for a parent in frontier,
+   * the nodes at level - 1 (whose number is the arcs of the result), from every
+   * unvisited node.
+   */
+  private Chunk bottomUpStep(Chunk frontier, int level, int[] hops, ForkJoinPool pool) {
+    long[] inFrontier = new long[(size + 63) >>> 6];
+    long frontierArcs = 0;
+    for (int i = 0; i < frontier.size; i++) {
+      int u = frontier.nodes[i];
+      inFrontier[u >>> 6] |= 1L << u;
+      frontierArcs += degree(u);
+    }
+    int chunks = (size + NODE_CHUNK - 1) / NODE_CHUNK;
+    Chunk next = run(chunks, (c) -> {
+      // Each node is looked at by one chunk only, so it need not be claimed.
+      Chunk found = new Chunk(NODE_CHUNK / 4);
+      int end = Math.min(size, (c + 1) * NODE_CHUNK);
+      for (int v = c * NODE_CHUNK; v < end; v++) {
+        if (hops[v] != UNREACHED) {
+          continue;
+        }
+        for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+          int u = inTargets[k];
+          if ((inFrontier[u >>> 6] & (1L << u)) != 0) {
+            hops[v] = level;
+            found.add(v);
+            break;
+          }
+        }
+      }
+      return found;
+    }, pool);
+    next.arcs = frontierArcs;
+    return next;
+  }
+
+  /**
+   * Return the concatenation of step(0), ..., step(chunks - 1), run on the threads of
+   * pool, or on this thread if there is only one chunk.
+   */
+  private static Chunk run(int chunks, IntFunction<Chunk> step, ForkJoinPool pool) {
+    if (chunks == 1) {
+      return step.apply(0);
+    }
+    Chunk[] parts = new Chunk[chunks];
+    pool.invoke(new StepTask(0, chunks, step, parts));
+    int total = 0;
+    long arcs = 0;
+    for (Chunk p : parts) {
+      total += p.size;
+      arcs += p.arcs;
+    }
+    int[] nodes = new int[total];
+    int at = 0;
+    for (Chunk p : parts) {
+      System.arraycopy(p.nodes, 0, nodes, at, p.size);
+      at += p.size;
+    }
+    return new Chunk(nodes, total, arcs);
+  }
+
+  /**
+   * Set the bit of node v in visited. Return true iff it was not already set.
+   * The bits settle which thread reaches a node first within a level; once a level
+   * is done, a node has been reached iff its hop count is set, which is checked
+   * first, so levels searched by one thread need not set bits at all.
+   */
+  private static boolean claim(AtomicLongArray visited, int v) {
+    int w = v >>> 6;
+    long bit = 1L << v;
+    while (true) {
+      long old = visited.get(w);
+      if ((old & bit) != 0) {
+        return false;
+      }
+      if (visited.compareAndSet(w, old, old | bit)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Return the number of arcs leaving node u.
+   */
+  private int degree(int u) {
+    return offsets[u + 1] - offsets[u];
+  }
+
+  /**
+   * An instance is a list of nodes found in one level (or part of one), with the
+   * number of arcs that leave the nodes of the level before, which they were found from.
+   */
+  private static final class Chunk {
+    private int[] nodes;
+    private int size;
+    private long arcs;
+
+    /**
+     * Constructor: an empty list with room for capacity nodes.
+     */
+    private Chunk(int capacity) {
+      this(new int[capacity], 0, 0);
+    }
+
+    /**
+     * Constructor: the list of nodes[0..sz-1], with a arcs leaving them.
+     */
+    private Chunk(int[] nds, int sz, long a) {
+      nodes = nds;
+      size = sz;
+      arcs = a;
+    }
+
+    /**
+     * Add node v.
+     */
+    private void add(int v) {
+      if (size == nodes.length) {
+        nodes = Arrays.copyOf(nodes, 2 * size);
+      }
+      nodes[size++] = v;
+    }
+  }
+
+  /**
+   * A task that runs the chunks [lo, hi) of a step, putting step(c) in parts[c].
+   */
+  private static final class StepTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int lo;
+    private final int hi;
+    private final transient IntFunction<Chunk> step;
+    private final transient Chunk[] parts;
+
+    /**
+     * Constructor: the task for chunks [l, h) of step stp, with results in prts.
+     */
+    private StepTask(int l, int h, IntFunction<Chunk> stp, Chunk[] prts) {
+      lo = l;
+      hi = h;
+      step = stp;
+      parts = prts;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo == 1) {
+        parts[lo] = step.apply(lo);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new StepTask(lo, mid, step, parts), new StepTask(mid, hi, step, parts));
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * An enum representing an algorithm that finds a shortest path between two nodes
+ * of a cavern. Use it with Cavern.shortestPath(Node, Node, PathSearch).
+ */
+public enum PathSearch {
+  /**
+   * Dijkstra's algorithm from the start, stopping as soon as the end is settled.
+   */
+  DIJKSTRA {
+    @Override
+    ShortestPath search(CompactGraph g, int from, int to) {
+      return guided(g, from, to, false);
+    }
+  },
+
+  /**
+   * A* search. The heuristic is the Manhattan distance to the end scaled by the
+   * smallest edge length in the cavern: every edge moves one row or one column,
+   * so this never overestimates, and fewer nodes are settled than by DIJKSTRA.
+   */
+  A_STAR {
+    @Override
+    ShortestPath search(CompactGraph g, int from, int to) {
+      return guided(g, from, to, true);
+    }
+  },
+
+  /**
+   * Bidirectional Dijkstra: one search from each end, always advancing the one
+   * whose frontier is closer, until the two searches cannot improve on the best
+   * meeting point found so far.
+   */
+  BIDIRECTIONAL {
+    @Override
+    ShortestPath search(CompactGraph g, int from, int to) {
+      return bidirectional(g, from, to);
+    }
+  };
+
+  /** Distance of a node not yet reached by a search. */
+  private static final int UNSEEN = -1;
+
+  /**
+   * Return a shortest path in g from ordinal from to ordinal to,
+   * or null if there is none.
+   */
+  abstract ShortestPath search(CompactGraph g, int from, int to);
+
+  /**
+   * Return a shortest path in g from ordinal from to ordinal to, or null if there is none,
+   * using A* if useHeuristic is true and Dijkstra's algorithm otherwise.
+   */
+  private static ShortestPath guided(CompactGraph g, int from, int to, boolean useHeuristic) {
+    Tile goal = g.node(to).getTile();
+    int scale = (useHeuristic ? g.minWeight() : 0);
+
+    IndexedMinHeap frontier = new IndexedMinHeap(g.size());
+    int[] dist = new int[g.size()];
+    int[] parent = new int[g.size()];
+    Arrays.fill(dist, UNSEEN);
+    parent[from] = -1;
+
+    dist[from] = 0;
+    frontier.add(from, scale * manhattan(g, from, goal));
+    while (!frontier.isEmpty()) {
+      int f = frontier.poll();
+      if (f == to) {
+        return ShortestPath.fromParents(g, dist[f], f, parent);
+      }
+      for (int k = g.firstArc(f); k < g.endArc(f); k++) {
+        int w = g.target(k);
+        int weightThroughF = dist[f] + g.weight(k);
+        if (dist[w] == UNSEEN || weightThroughF < dist[w]) {
+          // With a consistent heuristic a settled node is never improved on,
+          // so w is either new or still in the frontier here.
+          dist[w] = weightThroughF;
+          parent[w] = f;
+          frontier.addOrDecrease(w, weightThroughF + scale * manhattan(g, w, goal));
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return a shortest path in g from ordinal from to ordinal to, or null if there is none,
+   * using bidirectional Dijkstra. Edges have the same length in both directions, so the
+   * backward search can follow the same arcs as the forward one.
+   */
+  private static ShortestPath bidirectional(CompactGraph g, int from, int to) {
+    if (from == to) {
+      int[] parent = new int[g.size()];
+      parent[from] = -1;
+      return ShortestPath.fromParents(g, 0, from, parent);
+    }
+
+    int[][] dist = {new int[g.size()], new int[g.size()]};
+    int[][] parent = {new int[g.size()], new int[g.size()]};
+    boolean[][] settled = {new boolean[g.size()], new boolean[g.size()]};
+    IndexedMinHeap[] frontier = {new IndexedMinHeap(g.size()), new IndexedMinHeap(g.size())};
+    int[] root = {from, to};
+    for (int side = 0; side < 2; side++) {
+      Arrays.fill(dist[side], UNSEEN);
+      dist[side][root[side]] = 0;
+      parent[side][root[side]] = -1;
+      frontier[side].add(root[side], 0);
+    }
+
+    int best = Integer.MAX_VALUE;
+    int meet = -1;
+    while (!frontier[0].isEmpty() && !frontier[1].isEmpty()) {
+      if (frontier[0].peekPriority() + frontier[1].peekPriority() >= best) {
+        break;
+      }
+      int side = (frontier[0].peekPriority() <= frontier[1].peekPriority() ? 0 : 1);
+      int other = 1 - side;
+      int f = frontier[side].poll();
+      settled[side][f] = true;
+      for (int k = g.firstArc(f); k < g.endArc(f); k++) {
+        int w = g.target(k);
+        if (settled[side][w]) {
+          continue;
+        }
+        int weightThroughF = dist[side][f] + g.weight(k);
+        if (dist[side][w] == UNSEEN || weightThroughF < dist[side][w]) {
+          dist[side][w] = weightThroughF;
+          parent[side][w] = f;
+          frontier[side].addOrDecrease(w, weightThroughF);
+        }
+        if (dist[other][w] != UNSEEN && dist[side][w] + dist[other][w] < best) {
+          best = dist[side][w] + dist[other][w];
+          meet = w;
+        }
+      }
+    }
+    if (meet < 0) {
+      return null;
+    }
+    return ShortestPath.fromMeeting(g, best, meet, parent[0], parent[1]);
+  }
+
+  /**
+   * Return the Manhattan distance between the tile of ordinal o in g and goal.
+   */
+  private static int manhattan(CompactGraph g, int o, Tile goal) {
+    Tile t = g.node(o).getTile();
+    return Math.abs(t.getRow() - goal.getRow()) + Math.abs(t.getColumn() - goal.getColumn());
+  }
+}
@@ -0,0 +1,82 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An instance is an immutable shortest path between two nodes of a cavern,
+ * as found by one of the PathSearch strategies.
+ */
+public final class ShortestPath {
+  private final int length;
+  private final List<Node> nodes;
+
+  /**
+   * Constructor: a path of total length len through nodes ns (first to last).
+   */
+  private ShortestPath(int len, List<Node> ns) {
+    length = len;
+    nodes = Collections.unmodifiableList(ns);
+  }
+
+  /**
+   * Return the path of length len in graph g that ends at ordinal last and
+   * whose earlier ordinals are found by following parent from last.
+   */
+  static ShortestPath fromParents(CompactGraph g, int len, int last, int[] parent) {
+    List<Node> ns = new ArrayList<>();
+    for (int o = last; o >= 0; o = parent[o]) {
+      ns.add(g.node(o));
+    }
+    Collections.reverse(ns);
+    return new ShortestPath(len, ns);
+  }
+
+  /**
+   * Return the path of length len in graph g that goes from the start of a search
+   * to ordinal meet (following forward parents back from meet), and from meet on to
+   * the end of the search (following backward parents from meet).
+   */
+  static ShortestPath fromMeeting(CompactGraph g, int len, int meet,
+                                  int[] forwardParent, int[] backwardParent) {
+    List<Node> ns = new ArrayList<>();
+    for (int o = meet; o >= 0; o = forwardParent[o]) {
+      ns.add(g.node(o));
+    }
+    Collections.reverse(ns);
+    for (int o = backwardParent[meet]; o >= 0; o = backwardParent[o]) {
+      ns.add(g.node(o));
+    }
+    return new ShortestPath(len, ns);
+  }
+
+  /**
+   * Return the total length of this path (the sum of its edge lengths).
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Return the nodes on this path, from its start to its end, both included.
+   * The list is unmodifiable.
+   */
+  public List<Node> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Return the first node of this path.
+   */
+  public Node getStart() {
+    return nodes.get(0);
+  }
+
+  /**
+   * Return the last node of this path.
+   */
+  public Node getEnd() {
+    return nodes.get(nodes.size() - 1);
+  }
+}
@@ -0,0 +1,125 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An instance is a shortest-path tree of a cavern, rooted at one of its nodes.
+ *
+ * <p>The cavern's edges are undirected and have the same length in both directions,
+ * so the tree gives both the distance from the root to every node and the distance
+ * from every node to the root. The parent of a node is the next node on a shortest
+ * path from it to the root.</p>
+ *
+ * <p>A tree is computed once, with Dijkstra's algorithm over the whole graph, and is
+ * immutable afterwards. Picking up gold does not change edge lengths, so a tree stays
+ * valid for the lifetime of its cavern.</p>
+ */
+public final class ShortestPathTree {
+  /** Distance of a node that cannot be reached from the root. */
+  public static final int UNREACHABLE = -1;
+
+  private final CompactGraph graph;
+  private final int root;
+  /** dist[o] is the distance between the root and ordinal o, or UNREACHABLE. */
+  private final int[] dist;
+  /** parent[o] is the ordinal after o on a shortest path to the root, or -1. */
+  private final int[] parent;
+
+  /**
+   * Constructor: the shortest-path tree of graph g rooted at ordinal r.
+   */
+  ShortestPathTree(CompactGraph g, int r) {
+    graph = g;
+    root = r;
+    dist = new int[g.size()];
+    parent = new int[g.size()];
+    Arrays.fill(dist, UNREACHABLE);
+    Arrays.fill(parent, -1);
+
+    IndexedMinHeap frontier = new IndexedMinHeap(g.size());
+    dist[r] = 0;
+    frontier.add(r, 0);
+    while (!frontier.isEmpty()) {
+      int f = frontier.poll();
+      for (int k = g.firstArc(f); k < g.endArc(f); k++) {
+        int w = g.target(k);
+        int weightThroughF = dist[f] + g.weight(k);
+        if (dist[w] == UNREACHABLE || weightThroughF < dist[w]) {
+          dist[w] = weightThroughF;
+          parent[w] = f;
+          frontier.addOrDecrease(w, weightThroughF);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the root of this tree.
+   */
+  public Node getRoot() {
+    return graph.node(root);
+  }
+
+  /**
+   * Return the length of a shortest path between n and the root,
+   * or UNREACHABLE if there is no such path.
+   * Throw an IllegalArgumentException if n is not in this tree's cavern.
+   */
+  public int distanceTo(Node n) {
+    return dist[ordinalOf(n)];
+  }
+
+  /**
+   * Return the node after n on a shortest path from n to the root,
+   * or null if n is the root or cannot reach it.
+   * Throw an IllegalArgumentException if n is not in this tree's cavern.
+   */
+  public Node getParent(Node n) {
+    int p = parent[ordinalOf(n)];
+    return (p < 0 ? null : graph.node(p));
+  }
+
+  /**
+   * Return a shortest path from n to the root, including both ends
+   * (empty if n cannot reach the root).
+   * Throw an IllegalArgumentException if n is not in this tree's cavern.
+   */
+  public List<Node> pathToRoot(Node n) {
+    int o = ordinalOf(n);
+    List<Node> path = new ArrayList<>();
+    if (dist[o] == UNREACHABLE) {
+      return path;
+    }
+    for (; o >= 0; o = parent[o]) {
+      path.add(graph.node(o));
+    }
+    return path;
+  }
+
+  /**
+   * Return the distance between the root and the node with ordinal o.
+   */
+  int distanceTo(int o) {
+    return dist[o];
+  }
+
+  /**
+   * Return the ordinal of the parent of ordinal o, or -1 if there is none.
+   */
+  int parentOf(int o) {
+    return parent[o];
+  }
+
+  /**
+   * Return the ordinal of n in this tree's graph.
+   * Throw an IllegalArgumentException if n is not in this tree's cavern.
+   */
+  private int ordinalOf(Node n) {
+    if (n.getGraph() != graph) {
+      throw new IllegalArgumentException("Node must be in the cavern of this tree");
+    }
+    return n.getOrdinal();
+  }
+}
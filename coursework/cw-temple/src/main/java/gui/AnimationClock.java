@@ -0,0 +1,88 @@
+package gui;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The one clock that drives every animation of every GUI. It ticks each animated
+ * object once per frame, at GUI.getFramesPerSecond() frames per second, on a single
+ * daemon thread that runs only while something is animated.
+ */
+final class AnimationClock {
+  /**
+   * Something animated by the clock.
+   */
+  interface Animated {
+    /**
+     * Advance by one frame. nowNanos is the time of the frame (as from System.nanoTime()).
+     */
+    void tick(long nowNanos);
+  }
+
+  private static final AnimationClock SHARED = new AnimationClock();
+
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor((r) -> {
+        Thread t = new Thread(r, "GUI animation clock");
+        t.setDaemon(true);
+        return t;
+      });
+  private final List<Animated> animated = new CopyOnWriteArrayList<>();
+  /** True iff a tick is scheduled. */
+  private boolean running;
+
+  private AnimationClock() {
+  }
+
+  /**
+   * Return the clock shared by all GUIs.
+   */
+  static AnimationClock shared() {
+    return SHARED;
+  }
+
+  /**
+   * Tick a once per frame from now on.
+   */
+  synchronized void add(Animated a) {
+    animated.add(a);
+    if (!running) {
+      running = true;
+      executor.execute(this::tick);
+    }
+  }
+
+  /**
+   * Stop ticking a.
+   */
+  void remove(Animated a) {
+    animated.remove(a);
+  }
+
+  /**
+   * Tick everything animated and schedule the next frame, unless nothing is left.
+   */
+  private void tick() {
+    long start = System.nanoTime();
+    for (Animated a : animated) {
+      try {
+        a.tick(start);
+      } catch (RuntimeException e) {
+        // One broken animation must not stop the others.
+        e.printStackTrace();
+      }
+    }
+    synchronized (this) {
+      if (animated.isEmpty()) {
+        running = false;
+        return;
+      }
+    }
+    long period = TimeUnit.SECONDS.toNanos(1) / Math.max(GUI.getFramesPerSecond(), 1);
+    executor.schedule(this::tick, Math.max(period - (System.nanoTime() - start), 0),
+        TimeUnit.NANOSECONDS);
+  }
+}
@@ -8,17 +8,21 @@ import game.Node;
 
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.SynchronousQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.JPanel;
 
 /**
  * Responsible for managing the explorer and drawing it on the screen.
  * Handles functions to update the explorer and update its drawing as well.
+ * Queued moves are animated one frame per tick of the shared AnimationClock;
+ * moves queued with jumpTo() are made together, without animation, at the next tick.
+ * The explorer is ticked only while it has moves to make, so an idle or closed GUI
+ * does not keep the clock running.
  */
-public class ExplorerSprite extends JPanel {
+public class ExplorerSprite extends JPanel implements AnimationClock.Animated {
   private static final long serialVersionUID = 1L;
 
   //Sprite class to handle animating the explorer
@@ -37,16 +41,28 @@ public class ExplorerSprite extends JPanel {
   //y-coordinate(pixels)                    
   private int posY;                   
   //List of moves we need to make to get to the goal location        
-  private BlockingQueue<MovePair> queuedMoves;
+  private final Queue<MovePair> queuedMoves = new ConcurrentLinkedQueue<>();
+  //The move being animated, or null if none
+  private MovePair currentMove;
+  //How many frames of the current move have been shown
+  private int framesIntoMove;
   //Which direction is the explorer currently facing?
   private Cavern.Direction dir = Direction.NORTH;  
-  //Allow our moveTo to block until complete.     
-  private Semaphore blockUntilDone;          
-
-  //Thread that updates explorer's location
-  private Thread updateThread;        
-  //Thread that updates explorer's animation        
-  private Thread animationUpdateThread;       
+  //Row, column and direction of the explorer once all queued moves are made
+  private int lastQueuedRow;
+  private int lastQueuedCol;
+  private Cavern.Direction lastQueuedDir = Direction.NORTH;
+  //Number of moves queued so far, and number made so far
+  private long movesQueued;
+  private long movesMade;
+  //Lock guarding movesQueued and movesMade, which moveTo waits on
+  private final Object moveLock = new Object();
+  //Time of the last animation frame of the sprite
+  private long lastSpriteTick;
+  //True iff the explorer is ticked by the clock (guarded by moveLock)
+  private boolean ticking;
+  //True once stop() has been called (guarded by moveLock)
+  private boolean stopped;
 
   //Number of animation frames displayed per second
   private static final double ANIMATION_FPS = 10;    
@@ -59,65 +75,92 @@ public class ExplorerSprite extends JPanel {
   public ExplorerSprite(int startRow, int startCol) {
     //Initialize fields
     sprite = new Sprite(SPRITESHEET, spriteWidth, spriteHeight, 3);
-    queuedMoves = new SynchronousQueue<MovePair>();
-    blockUntilDone = new Semaphore(0);
 
     //Initialize our starting location
     row = startRow;
     col = startCol;
+    lastQueuedRow = startRow;
+    lastQueuedCol = startCol;
     posX = row * MazePanel.TILE_WIDTH;
     posY = col * MazePanel.TILE_HEIGHT;
+  }
 
-    //Create a thread which will periodically update the explorer's position
-    updateThread = new Thread(new Runnable() {
-      @Override
-      public void run() {
-        while (true) {
-          try {
-            int frames = GUI.getFramesPerMove();
-            MovePair move = queuedMoves.take();
-            //Move to the goal
-            for (int i = 1; i <= frames; i++) {
-              long startTime = System.currentTimeMillis();
-              //Get the next move to make
-              update(frames, i, move);
-              long lagTime = System.currentTimeMillis() - startTime;
-              if (lagTime < 1000 / GUI.getFramesPerSecond()) {
-                Thread.sleep(1000 / GUI.getFramesPerSecond() - lagTime);
-              }
-            }
-            blockUntilDone.release();
-
-          } catch (InterruptedException e) {
-            return;
-          }
-        }
+  /**
+   * Advance the explorer by one frame: make every move at the head of the queue that
+   * is not animated, then show the next frame of the current move, if any.
+   * Called by the shared AnimationClock.
+   */
+  @Override
+  public void tick(long nowNanos) {
+    if (nowNanos - lastSpriteTick >= TimeUnit.SECONDS.toNanos(1) / ANIMATION_FPS) {
+      sprite.tick();
+      lastSpriteTick = nowNanos;
+    }
+
+    int oldX = posX;
+    int oldY = posY;
+    long made = 0;
+    if (currentMove == null) {
+      currentMove = queuedMoves.poll();
+      framesIntoMove = 0;
+    }
+    while (currentMove != null && !currentMove.animate) {
+      finish(currentMove);
+      made++;
+      currentMove = queuedMoves.poll();
+    }
+    if (currentMove != null) {
+      dir = currentMove.dir;
+      update(currentMove.frames, ++framesIntoMove, currentMove);
+      if (framesIntoMove >= currentMove.frames) {
+        finish(currentMove);
+        made++;
+        currentMove = null;
+      }
+    }
+    if (made > 0) {
+      //Repaint only where the explorer was and is, not the whole maze below it
+      repaint(oldX, oldY, MazePanel.TILE_WIDTH, MazePanel.TILE_HEIGHT);
+      repaint(posX, posY, MazePanel.TILE_WIDTH, MazePanel.TILE_HEIGHT);
+      synchronized (moveLock) {
+        movesMade += made;
+        moveLock.notifyAll();
       }
-    });
-
-    updateThread.start();
-
-    //Create a thread that will periodically update the explorer's animation
-    animationUpdateThread = new Thread(new Runnable() {
-      @Override
-      public void run() {
-        while (true) {
-          try {
-            long startTime = System.currentTimeMillis();
-            sprite.tick();
-            long lagTime = System.currentTimeMillis() - startTime;
-            if (lagTime < 1000 / ANIMATION_FPS) {
-              Thread.sleep((long) (1000 / ANIMATION_FPS - lagTime));
-            }
-          } catch (InterruptedException e) {
-            return;
-          }
+    }
+    if (currentMove == null) {
+      synchronized (moveLock) {
+        //Moves are queued while holding moveLock, so none can be missed here
+        if (queuedMoves.isEmpty() && ticking) {
+          ticking = false;
+          AnimationClock.shared().remove(this);
         }
       }
-    });
+    }
+  }
 
-    animationUpdateThread.start();
+  /**
+   * Stop animating the explorer for good, dropping any moves not yet made.
+   * Threads waiting in moveTo() are released.
+   */
+  public void stop() {
+    synchronized (moveLock) {
+      stopped = true;
+      ticking = false;
+      AnimationClock.shared().remove(this);
+      queuedMoves.clear();
+      moveLock.notifyAll();
+    }
+  }
 
+  /**
+   * Put the explorer at the end of move.
+   */
+  private void finish(MovePair move) {
+    dir = move.dir;
+    row = move.row;
+    col = move.col;
+    posX = MazePanel.TILE_WIDTH * col;
+    posY = MazePanel.TILE_HEIGHT * row;
   }
 
   /**
@@ -160,20 +203,53 @@ public class ExplorerSprite extends JPanel {
   /** 
    * Tell the explorer to move from its current location to dst.
    * After making move, calling thread will block until move completes on GUI.
-   * Precondition: dst must be adjacent to the current location and not currently moving.
+   * Precondition: dst must be adjacent to the location of the last move queued.
    * May throw an InterruptedException 
    */
   public void moveTo(Node dst) throws InterruptedException {
-    dir = getDirection(row, col, dst.getTile().getRow(), dst.getTile().getColumn());
+    long ticket = queue(dst, true);
+    synchronized (moveLock) {
+      while (movesMade < ticket && !stopped) {
+        moveLock.wait();
+      }
+    }
+  }
 
-    //Determine sequence of moves to add to queue to get to goal
-    final int xDiff = (dst.getTile().getColumn() - col) * MazePanel.TILE_WIDTH;
-    final int yDiff = (dst.getTile().getRow() - row) * MazePanel.TILE_HEIGHT;
-    queuedMoves.put(new MovePair(xDiff, yDiff));
+  /**
+   * Tell the explorer to jump from the location of the last move queued to dst,
+   * without animating the move and without waiting for it to be made. All the
+   * jumps queued between two frames are made together, in a single repaint.
+   */
+  public void jumpTo(Node dst) {
+    queue(dst, false);
+  }
 
-    blockUntilDone.acquire();
-    row = dst.getTile().getRow();
-    col = dst.getTile().getColumn();
+  /**
+   * Queue a move to dst, animated iff animate is true, and return how many moves
+   * will have been made once it is.
+   */
+  private long queue(Node dst, boolean animate) {
+    synchronized (moveLock) {
+      if (stopped) {
+        return movesQueued;
+      }
+      int dstRow = dst.getTile().getRow();
+      int dstCol = dst.getTile().getColumn();
+      //Determine the move to add to queue to get to goal
+      final int xDiff = (dstCol - lastQueuedCol) * MazePanel.TILE_WIDTH;
+      final int yDiff = (dstRow - lastQueuedRow) * MazePanel.TILE_HEIGHT;
+      Direction facing = getDirection(lastQueuedRow, lastQueuedCol, dstRow, dstCol);
+      queuedMoves.add(new MovePair(xDiff, yDiff, dstRow, dstCol, facing,
+          GUI.getFramesPerMove(), animate));
+      lastQueuedRow = dstRow;
+      lastQueuedCol = dstCol;
+      lastQueuedDir = facing;
+      if (!ticking) {
+        ticking = true;
+        AnimationClock.shared().add(this);
+      }
+      return ++movesQueued;
+    }
   }
 
   /**
@@ -188,15 +264,19 @@ public class ExplorerSprite extends JPanel {
    * Update the location of the explorer as necessary.
    */
   private void update(int framesPerMove, int framesIntoMove, MovePair move) {
+    int oldX = posX;
+    int oldY = posY;
     //Make the move toward our destination
     posX = MazePanel.TILE_WIDTH * getCol() + (framesIntoMove * move.xcoordDiff) / framesPerMove;
     posY = MazePanel.TILE_HEIGHT * getRow() + (framesIntoMove * move.ycoordDiff) / framesPerMove;
-    repaint();
+    //Repaint only where the explorer was and is, not the whole maze below it
+    repaint(oldX, oldY, MazePanel.TILE_WIDTH, MazePanel.TILE_HEIGHT);
+    repaint(posX, posY, MazePanel.TILE_WIDTH, MazePanel.TILE_HEIGHT);
   }
 
   /**
    * Return the the direction the current location (row, col) to (goalRow, goalCol).
-   * If already there, return the current direction.
+   * If already there, return the direction of the last move queued.
    */
   private Direction getDirection(int row, int col, int goalRow, int goalCol) {
     if (goalRow < row) {
@@ -211,25 +291,37 @@ public class ExplorerSprite extends JPanel {
     if (goalCol > col) {
       return Direction.EAST;
     }
-    return dir;
+    return lastQueuedDir;
   }
 
   /**
    * Store information that uniquely represents a move we can make.
    */
-  private class MovePair {
+  private static class MovePair {
     final int xcoordDiff;
     final int ycoordDiff;
+    final int row;
+    final int col;
+    final Direction dir;
+    final int frames;
+    final boolean animate;
 
     /**
-     * Constructor: an instance with change (Xdiff, yDiff).
+     * Constructor: an instance with change (Xdiff, yDiff) that ends at (r, c) facing d,
+     * animated (iff anim is true) over frms frames.
      *
      * @param xChange The change in the x coordinate to make this move
      * @param yChange The change in the y coordinate to make this move
      */
-    public MovePair(int xcoordChange, int ycoordChange) {
+    public MovePair(int xcoordChange, int ycoordChange, int r, int c, Direction d, int frms,
+                    boolean anim) {
       xcoordDiff = xcoordChange;
       ycoordDiff = ycoordChange;
+      row = r;
+      col = c;
+      dir = d;
+      frames = Math.max(frms, 1);
+      animate = anim;
     }
   }
 }
@@ -1,6 +1,8 @@
 package gui;
 
 import game.Cavern;
+import game.GameEvent;
+import game.GameEventRing;
 import game.Node;
 import game.Tile;
 
@@ -12,6 +14,7 @@ import java.awt.image.BufferedImage;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JLayeredPane;
+import javax.swing.SwingUtilities;
 
 /**
  * An instance is a GUI for the game.
@@ -25,6 +28,9 @@ public class GUI extends JFrame implements Constants {
 
   private static int framesPerSecond = 60;    //Framerate of game (fps)
   private static int framesPerMove = 25;      //How many frames does a single move take us?
+  //Moves are shown without animation while more events than this wait to be shown,
+  //or (if negative) more than a quarter of the capacity of the ring being played
+  private static int maxPendingEvents = -1;
 
   private MazePanel mazePanel;            //The panel for generating and drawing the maze
   private ExplorerSprite explorer;        //The panel for updating and drawing the explorer
@@ -122,6 +128,31 @@ public class GUI extends JFrame implements Constants {
     GUI.framesPerMove = framesPerMove;
   }
 
+  public static int getMaxPendingEvents() {
+    return maxPendingEvents;
+  }
+
+  /**
+   * Skip the animation of moves whenever more than maxPendingEvents events are
+   * waiting to be shown, so that a GUI far behind its game catches up. The skipped
+   * moves are made a frame's worth at a time. Integer.MAX_VALUE animates every
+   * move, and 0 skips animation whenever any event is waiting. Any negative value
+   * (the default) skips animation while more than a quarter of the capacity of the
+   * ring being played is waiting.
+   */
+  public static void setMaxPendingEvents(int maxPendingEvents) {
+    GUI.maxPendingEvents = maxPendingEvents;
+  }
+
+  /**
+   * Stop animating the explorer, and close this GUI.
+   */
+  @Override
+  public void dispose() {
+    explorer.stop();
+    super.dispose();
+  }
+
   /**
    * Move the player on the GUI to destination dest.
    * Note : This blocks until the player has moved.
@@ -136,11 +167,22 @@ public class GUI extends JFrame implements Constants {
     }
   }
 
+  /**
+   * Move the player on the GUI to destination dest without animating the move.
+   * This does not block: the move is made at the next frame, together with any
+   * other jumps queued before it.
+   * Precondition : dest is adjacent to the player's last queued destination
+   */
+  public void jumpTo(Node dest) {
+    mazePanel.setVisited(dest.getTile().getRow(), dest.getTile().getColumn());
+    explorer.jumpTo(dest);
+  }
+
   /**
    * Update the bonus multiplier as displayed by the GUI by bonus.
    */
   public void updateBonus(double bonus) {
-    options.updateBonus(bonus);
+    onEventThread(() -> options.updateBonus(bonus));
   }
 
   /**
@@ -150,7 +192,7 @@ public class GUI extends JFrame implements Constants {
    * @param score the player's current score
    */
   public void updateCoins(int coins, int score) {
-    options.updateCoins(coins, score);
+    onEventThread(() -> options.updateCoins(coins, score));
     tileSelect.repaint();
   }
 
@@ -159,7 +201,7 @@ public class GUI extends JFrame implements Constants {
    * timeRemaining is the time remaining before the cave collapses
    */
   public void updateTimeRemaining(int timeRemaining) {
-    options.updateTimeRemaining(timeRemaining);
+    onEventThread(() -> options.updateTimeRemaining(timeRemaining));
   }
 
   /**
@@ -167,11 +209,88 @@ public class GUI extends JFrame implements Constants {
    */
   public void updateCavern(Cavern c, int numStepsRemaining) {
     mazePanel.setCavern(c);
-    options.updateMaxTimeRemaining(numStepsRemaining);
+    updateMaxTimeRemaining(numStepsRemaining);
+  }
+
+  /**
+   * Update the state of the Cavern to c, showing gold gold[row][col] on each tile.
+   */
+  public void updateCavern(Cavern c, int[][] gold, int numStepsRemaining) {
+    mazePanel.setCavern(c, gold);
+    updateMaxTimeRemaining(numStepsRemaining);
+  }
+
+  /**
+   * Show numStepsRemaining as both the time remaining and the time allowed.
+   */
+  private void updateMaxTimeRemaining(int numStepsRemaining) {
+    onEventThread(() -> options.updateMaxTimeRemaining(numStepsRemaining));
     updateTimeRemaining(numStepsRemaining);
     tileSelect.repaint();
   }
 
+  /**
+   * Show the events in ring, in order, as they arrive, on a thread of this GUI's own.
+   * Each move is animated before the next event is shown, so the GUI can fall
+   * behind the game and catch up later, unless more than getMaxPendingEvents()
+   * events are waiting, when moves are made without animation until it has caught
+   * up. The thread ends once ring is drained.
+   */
+  public void play(GameEventRing ring) {
+    int maxPending = (maxPendingEvents < 0 ? ring.capacity() / 4 : maxPendingEvents);
+    Thread player = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          for (GameEvent e = ring.take(); e != null; e = ring.take()) {
+            show(e, ring, maxPending);
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }, "GUI event player");
+    player.setDaemon(true);
+    player.start();
+  }
+
+  /**
+   * Show event e, taken from ring, skipping the animation of moves while more than
+   * maxPending events wait in ring.
+   */
+  private void show(GameEvent e, GameEventRing ring, int maxPending) {
+    switch (e.getKind()) {
+      case CAVERN:
+        updateCavern(e.getCavern(), e.getGold(), e.getValue());
+        break;
+      case LIGHTING:
+        setLighting(e.isLight());
+        break;
+      case MOVE:
+        if (ring.size() > maxPending) {
+          jumpTo(e.getNode());
+        } else {
+          moveTo(e.getNode());
+        }
+        break;
+      case BONUS:
+        updateBonus(e.getBonus());
+        break;
+      case TIME_REMAINING:
+        updateTimeRemaining(e.getValue());
+        break;
+      case GOLD:
+        mazePanel.clearGold(e.getNode().getTile().getRow(), e.getNode().getTile().getColumn());
+        updateCoins(e.getValue(), e.getScore());
+        break;
+      case ERROR:
+        displayError(e.getMessage());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown event: " + e.getKind());
+    }
+  }
+
   /**
    * Set the cavern to be all light or all dark, depending on light.
    */
@@ -179,6 +298,19 @@ public class GUI extends JFrame implements Constants {
     mazePanel.setLighting(light);
   }
 
+  /**
+   * Run r on the event dispatch thread: at once if this is that thread, and
+   * otherwise after everything already posted there. Swing components may be
+   * changed only there, while the game events reach a GUI on its own thread.
+   */
+  static void onEventThread(Runnable r) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      r.run();
+    } else {
+      SwingUtilities.invokeLater(r);
+    }
+  }
+
   /**
    * Return an image representing tile type.
    */
@@ -186,6 +318,13 @@ public class GUI extends JFrame implements Constants {
     return mazePanel.getIcon(type);
   }
 
+  /**
+   * Return the gold shown on the tile of node n.
+   */
+  public int getGold(Node n) {
+    return mazePanel.getGold(n);
+  }
+
   /**
    * Return an icon for the gold on tile n, or null otherwise.
    */
@@ -205,6 +344,13 @@ public class GUI extends JFrame implements Constants {
    * Display error e to the player.
    */
   public void displayError(String e) {
+    onEventThread(() -> showError(e));
+  }
+
+  /**
+   * Open a window showing error e. Call only on the event dispatch thread.
+   */
+  private void showError(String e) {
     JFrame errorFrame = new JFrame();
     errorFrame.setTitle("Error in Solution");
     JLabel errorText = new JLabel(e);
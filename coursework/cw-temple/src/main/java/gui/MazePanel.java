@@ -8,6 +8,7 @@ import game.Tile;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
@@ -63,8 +64,12 @@ public class MazePanel extends JPanel {
   private Cavern cavern;          
   //Contains the nodes already visited    
   private boolean[][] visited;        
+  //The gold shown on each tile, which may lag behind the cavern's own
+  private int[][] gold;
   //Color to place over unvisited paths 
   private Color darkness;                           
+  //Walls and floor of the cavern at the current tile size, or null if not drawn yet
+  private BufferedImage staticLayer;
 
   /**
    * Create a new MazePanel of a given size.
@@ -77,13 +82,10 @@ public class MazePanel extends JPanel {
   public MazePanel(Cavern cav, int screenWidth, int screenHeight, GUI gui) {
     cavern = cav;
     visited = new boolean[cavern.getRowCount()][cavern.getColumnCount()];
+    gold = goldOf(cavern);
 
     //Compute the dimensions of an individual tile
-    TILE_WIDTH = (int) (screenWidth * 1.0 / cavern.getColumnCount());
-    TILE_HEIGHT = (int) (screenHeight * 0.95 / cavern.getRowCount());
-    //Force tiles to be square
-    TILE_WIDTH = Math.min(TILE_WIDTH, TILE_HEIGHT);
-    TILE_HEIGHT = Math.min(TILE_WIDTH, TILE_HEIGHT);
+    setTileSize(screenWidth, screenHeight);
 
     //Load content
     try {
@@ -124,42 +126,116 @@ public class MazePanel extends JPanel {
   }
 
   /**
-   * Set the cavern to c.
+   * Set the cavern to c, showing the gold it has now.
+   * This may be called from any thread (see setCavern(Cavern, int[][])).
    */
   void setCavern(Cavern c) {
-    cavern = c;
-    repaint();
+    setCavern(c, goldOf(c));
+  }
+
+  /**
+   * Set the cavern to c, showing gold g[row][col] on each tile (g itself is not changed).
+   * This may be called from any thread: g is copied at once, and the copy is put in
+   * place on the event dispatch thread, where the panel is painted. The same holds
+   * for every method that changes what the panel shows.
+   */
+  void setCavern(Cavern c, int[][] g) {
+    int[][] copy = new int[g.length][];
+    for (int i = 0; i < g.length; i++) {
+      copy[i] = g[i].clone();
+    }
+    GUI.onEventThread(() -> {
+      cavern = c;
+      gold = copy;
+      staticLayer = null;
+      repaint();
+    });
+  }
+
+  /**
+   * Return the gold on each tile of c, indexed by row and then column.
+   */
+  private static int[][] goldOf(Cavern c) {
+    int[][] g = new int[c.getRowCount()][c.getColumnCount()];
+    for (int i = 0; i < g.length; i++) {
+      for (int j = 0; j < g[i].length; j++) {
+        g[i][j] = c.getTileAt(i, j).getGold();
+      }
+    }
+    return g;
+  }
+
+  /**
+   * Return the gold shown on the tile of node n.
+   */
+  int getGold(Node n) {
+    return gold[n.getTile().getRow()][n.getTile().getColumn()];
+  }
+
+  /**
+   * Stop showing gold on tile (row, col).
+   */
+  void clearGold(int row, int col) {
+    GUI.onEventThread(() -> {
+      if (gold[row][col] != 0) {
+        gold[row][col] = 0;
+        repaintTile(row, col);
+      }
+    });
+  }
+
+  /**
+   * Repaint just tile (row, col).
+   */
+  private void repaintTile(int row, int col) {
+    repaint(TILE_WIDTH * col, TILE_HEIGHT * row, TILE_WIDTH, TILE_HEIGHT);
   }
 
   /**
    * The screen size has changed. Adjust the maze panel to (width, height).
    */
   void updateScreenSize(int width, int height) {
+    setTileSize(width, height);
+    repaint();
+  }
+
+  /**
+   * Size the tiles so that the cavern fits in (width, height).
+   * Tiles are square and at least one pixel wide.
+   */
+  private void setTileSize(int width, int height) {
     TILE_WIDTH = (int) (width * 1.0 / cavern.getColumnCount());
     TILE_HEIGHT = (int) (height * 0.95 / cavern.getRowCount());
     //Force tiles to be square
-    TILE_WIDTH = Math.min(TILE_WIDTH, TILE_HEIGHT);
-    TILE_HEIGHT = Math.min(TILE_WIDTH, TILE_HEIGHT);
-    repaint();
+    TILE_WIDTH = Math.max(1, Math.min(TILE_WIDTH, TILE_HEIGHT));
+    TILE_HEIGHT = TILE_WIDTH;
+    staticLayer = null;
   }
 
   /**
    * Set the cavern to be all light (light = true) or all dark.
    */
   public void setLighting(boolean light) {
-    for (int i = 0; i < cavern.getRowCount(); i++) {
-      for (int j = 0; j < cavern.getColumnCount(); j++) {
-        visited[i][j] = light;
+    GUI.onEventThread(() -> {
+      for (int i = 0; i < cavern.getRowCount(); i++) {
+        for (int j = 0; j < cavern.getColumnCount(); j++) {
+          visited[i][j] = light;
+        }
       }
-    }
-    repaint();
+      repaint();
+    });
   }
 
   /**
    * Update the GUI to inform it that tile (row, col) was visited.
    */
   public void setVisited(int row, int col) {
-    visited[row][col] = true;
+    GUI.onEventThread(() -> {
+      if (!visited[row][col]) {
+        visited[row][col] = true;
+        repaintTile(row, col);
+      }
+    });
   }
 
   /**
@@ -184,14 +260,14 @@ public class MazePanel extends JPanel {
    * Return an icon for the gold on tile n, or null otherwise.
    */
   public BufferedImage getGoldIcon(Node n) {
-    double gold = n.getTile().getGold();
-    if (gold == Cavern.TASTY_VALUE) {
+    double amount = getGold(n);
+    if (amount == Cavern.TASTY_VALUE) {
       return tasty;
     }
     
-    gold *= ((double) COIN_SPRITES_PER_ROW * COIN_SPRITES_PER_COL) / Cavern.MAX_GOLD_VALUE;
+    amount *= ((double) COIN_SPRITES_PER_ROW * COIN_SPRITES_PER_COL) / Cavern.MAX_GOLD_VALUE;
     
-    int spriteIndex = (int) gold;
+    int spriteIndex = (int) amount;
     int rowIndex = spriteIndex / COIN_SPRITES_PER_ROW;
     int colIndex = spriteIndex % COIN_SPRITES_PER_ROW;
     
@@ -199,47 +275,77 @@ public class MazePanel extends JPanel {
   }
 
   /**
-   * Draw the maze on the screen.
+   * Return an image of the walls and floor of the cavern at the current tile size,
+   * drawing it first if the cavern or the tile size has changed.
+   */
+  private BufferedImage staticLayer() {
+    if (staticLayer == null) {
+      BufferedImage layer = new BufferedImage(TILE_WIDTH * cavern.getColumnCount(),
+          TILE_HEIGHT * cavern.getRowCount(), BufferedImage.TYPE_INT_ARGB);
+      Graphics g = layer.getGraphics();
+      for (int row = 0; row < cavern.getRowCount(); row++) {
+        for (int col = 0; col < cavern.getColumnCount(); col++) {
+          boolean isWall = cavern.getTileAt(row, col).getType() == Tile.Type.WALL;
+          g.drawImage(isWall ? wall : path, TILE_WIDTH * col, TILE_HEIGHT * row,
+              TILE_WIDTH, TILE_HEIGHT, null);
+        }
+      }
+      g.dispose();
+      staticLayer = layer;
+    }
+    return staticLayer;
+  }
+
+  /**
+   * Draw the maze on the screen. Only the tiles inside the clip are drawn: the walls
+   * and floor come from a cached image, with the darkness, orb, gold and entrance
+   * drawn over them tile by tile.
    */
   @Override
   public void paintComponent(Graphics page) {
     super.paintComponent(page);
-    for (int i = 0; i < getWidth(); i += 100) {
+    Rectangle clip = page.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    for (int i = clip.x / 100 * 100; i < clip.x + clip.width; i += 100) {
       page.drawImage(background, i, 0, 100, getHeight(), null);
     }
+    page.drawImage(staticLayer(), 0, 0, null);
     page.setColor(darkness);
 
-    //Draw the maze tiles
-    for (int row = 0; row < cavern.getRowCount(); row++) {
-      for (int col = 0; col < cavern.getColumnCount(); col++) {
-        //This is a walkable tile
-        if (cavern.getTileAt(row, col).getType() != Tile.Type.WALL) {
-          //Draw the path image to the background
-          page.drawImage(path, TILE_WIDTH * col, TILE_HEIGHT * row,
+    //Draw the maze tiles that the clip touches
+    int firstRow = Math.max(clip.y / TILE_HEIGHT, 0);
+    int lastRow = Math.min((clip.y + clip.height - 1) / TILE_HEIGHT, cavern.getRowCount() - 1);
+    int firstCol = Math.max(clip.x / TILE_WIDTH, 0);
+    int lastCol = Math.min((clip.x + clip.width - 1) / TILE_WIDTH,
+        cavern.getColumnCount() - 1);
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int col = firstCol; col <= lastCol; col++) {
+        Tile.Type type = cavern.getTileAt(row, col).getType();
+        //Walls have nothing drawn over them
+        if (type == Tile.Type.WALL) {
+          continue;
+        }
+        //Darken this tile if we haven't been there yet
+        if (!visited[row][col]) {
+          page.fillRect(TILE_WIDTH * col, TILE_HEIGHT * row,
+              TILE_WIDTH, TILE_HEIGHT);
+        }
+        //If this is the goal, draw the orb
+        if (type == Tile.Type.ORB) {
+          page.drawImage(orb, TILE_WIDTH * col, TILE_HEIGHT * row,
               TILE_WIDTH, TILE_HEIGHT, null);
-          //Darken this tile if we haven't been there yet
-          if (!visited[row][col]) {
-            page.fillRect(TILE_WIDTH * col, TILE_HEIGHT * row,
-                TILE_WIDTH, TILE_HEIGHT);
-          }
-          //If this is the goal, draw the orb
-          if (cavern.getTileAt(row, col).getType() == Tile.Type.ORB) {
-            page.drawImage(orb, TILE_WIDTH * col, TILE_HEIGHT * row,
-                TILE_WIDTH, TILE_HEIGHT, null);
-          }
-          //If there is a coin here, draw it
-          if (cavern.getTileAt(row, col).getGold() > 0) {
-            page.drawImage(getGoldIcon(cavern.getNodeAt(row, col)),
-                TILE_WIDTH * col, TILE_HEIGHT * row,
-                TILE_WIDTH, TILE_HEIGHT, null);
-          }
-          //If this tile is the entrance, draw the graphic
-          if (cavern.getTileAt(row, col).getType() == Tile.Type.ENTRANCE) {
-            page.drawImage(entrance, TILE_WIDTH * col, TILE_HEIGHT * row,
-                TILE_WIDTH, TILE_HEIGHT, null);
-          }
-        } else { //This is a wall
-          page.drawImage(wall, TILE_WIDTH * col, TILE_HEIGHT * row,
+        }
+        //If there is a coin here, draw it
+        if (gold[row][col] > 0) {
+          page.drawImage(getGoldIcon(cavern.getNodeAt(row, col)),
+              TILE_WIDTH * col, TILE_HEIGHT * row,
+              TILE_WIDTH, TILE_HEIGHT, null);
+        }
+        //If this tile is the entrance, draw the graphic
+        if (type == Tile.Type.ENTRANCE) {
+          page.drawImage(entrance, TILE_WIDTH * col, TILE_HEIGHT * row,
               TILE_WIDTH, TILE_HEIGHT, null);
         }
       }
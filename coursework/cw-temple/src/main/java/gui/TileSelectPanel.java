@@ -135,7 +135,7 @@ public class TileSelectPanel extends JPanel {
       page.drawImage(pic, (int) (IMAGE_X * getWidth()), (int) (IMAGE_Y * getHeight()),
           (int) (IMAGE_WIDTH * getWidth()), (int) (IMAGE_HEIGHT * getHeight()), null);
       //Draw the coin image
-      if (selectedNode.getTile().getGold() > 0) {
+      if (gui.getGold(selectedNode) > 0) {
         BufferedImage coinPic = gui.getGoldIcon(selectedNode);
         page.drawImage(coinPic, (int) (IMAGE_X * getWidth()), (int) (IMAGE_Y * getHeight()),
             (int) (IMAGE_WIDTH * getWidth()), (int) (IMAGE_HEIGHT * getHeight()), null);
@@ -153,7 +153,7 @@ public class TileSelectPanel extends JPanel {
       page.drawString(text, x, (int) (ROW_COL_Y * getHeight()));
 
       //Amount of gold
-      text = "Gold Count : " + selectedNode.getTile().getGold();
+      text = "Gold Count : " + gui.getGold(selectedNode);
       x = getTextXForCenter((Graphics2D) page, text, (int) (RECT_X * getWidth()),
         (int) (RECT_WIDTH * getWidth()));
       page.drawString(text, x, (int) (GOLD_HEIGHT * getHeight()));
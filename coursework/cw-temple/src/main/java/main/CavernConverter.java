@@ -0,0 +1,36 @@
+package main;
+
+import game.Cavern;
+import game.CavernFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts cavern files from the text format of Cavern.serialize() to the binary
+ * format of CavernFile. Each file named on the command line is written next to
+ * itself with the extension ".cav".
+ */
+public class CavernConverter {
+  /**
+   * Driver.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: CavernConverter <text cavern file>...");
+      return;
+    }
+    for (String arg : args) {
+      Path in = Paths.get(arg);
+      String name = in.getFileName().toString();
+      int dot = name.lastIndexOf('.');
+      Path out = in.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".cav");
+
+      Cavern cavern = Cavern.deserialize(Files.readAllLines(in));
+      CavernFile.write(cavern, out);
+      System.out.println(in + " -> " + out);
+    }
+  }
+}
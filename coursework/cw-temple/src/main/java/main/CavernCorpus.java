@@ -0,0 +1,101 @@
+package main;
+
+import game.CavernCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Generates the caverns of a range of seeds into a CavernCache, in parallel, so that
+ * games run with TXTmain -cache DIR load them instead of generating them.
+ * Seeds whose caverns are already in the cache, undamaged, are skipped; caverns whose
+ * files are damaged or missing are generated again, and counted as repaired.
+ */
+public class CavernCorpus {
+  /**
+   * What was done for one seed.
+   */
+  private enum Outcome {
+    /** Its caverns were in the cache, undamaged. */
+    KEPT,
+    /** Its caverns were not in the cache, and were generated. */
+    GENERATED,
+    /** Its caverns were in the cache but missing or damaged, and were generated again. */
+    REPAIRED
+  }
+
+  /**
+   * Driver.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: CavernCorpus <cache dir> <first seed> <count> [-p threads]");
+      return;
+    }
+    CavernCache cache = new CavernCache(Paths.get(args[0]));
+    long firstSeed;
+    int count;
+    int threads = Runtime.getRuntime().availableProcessors();
+    try {
+      firstSeed = Long.parseLong(args[1]);
+      count = Integer.parseInt(args[2]);
+      if (args.length > 4 && args[3].equals("-p")) {
+        threads = Math.max(Integer.parseInt(args[4]), 1);
+      }
+    } catch (NumberFormatException e) {
+      System.err.println("Error, seeds, count and threads must be numbers");
+      return;
+    }
+
+    long start = System.nanoTime();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    Map<Outcome, Long> outcomes;
+    try {
+      // Offsets rather than seeds, so that a range ending past Long.MAX_VALUE wraps
+      outcomes = pool.submit(() -> LongStream.range(0, count)
+          .parallel()
+          .mapToObj((i) -> generate(cache, firstSeed + i))
+          .collect(Collectors.groupingBy(Function.identity(),
+              () -> new EnumMap<>(Outcome.class), Collectors.counting()))).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Generation interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Caverns could not be stored", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    System.out.println("Generated " + outcomes.getOrDefault(Outcome.GENERATED, 0L)
+        + " and repaired " + outcomes.getOrDefault(Outcome.REPAIRED, 0L)
+        + " of " + count + " seeds into "
+        + cache.getDirectory() + " in "
+        + new DecimalFormat("#.##").format((System.nanoTime() - start) / 1e6) + " ms");
+  }
+
+  /**
+   * Put the caverns of seed into cache unless they are there already and their
+   * hashes check out, and return what was done.
+   */
+  private static Outcome generate(CavernCache cache, long seed) {
+    if (cache.load(seed).isPresent()) {
+      return Outcome.KEPT;
+    }
+    // An entry that load() rejected refers to missing or damaged files.
+    boolean damaged = cache.contains(seed);
+    try {
+      cache.get(seed);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return (damaged ? Outcome.REPAIRED : Outcome.GENERATED);
+  }
+}
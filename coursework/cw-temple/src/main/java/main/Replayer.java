@@ -0,0 +1,95 @@
+package main;
+
+import game.CavernCache;
+import game.GameLog;
+import game.GameResult;
+import game.GameState;
+import gui.GUI;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays back games recorded by TXTmain -rec (or GameState.runHeadlessGame(long, Path))
+ * without running any explorer code. Each argument is a game log, or a directory
+ * whose .rpl files are all played back. Without -gui, one line is printed per game,
+ * giving the time its explorer took in each phase; with -gui, the first game is
+ * shown on the GUI instead, and with -skip N as well, moves are not animated while
+ * more than N events wait to be shown (a negative N is taken as 0). With -cache DIR, caverns are loaded from DIR
+ * (see CavernCorpus) rather than generated. Either way they are made before each
+ * game is timed, so the moves per second printed count only the moves played back.
+ */
+public class Replayer {
+  /**
+   * Driver.
+   */
+  public static void main(String[] args) throws IOException {
+    List<Path> logs = new ArrayList<>();
+    boolean useGui = false;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.equals("-gui")) {
+        useGui = true;
+      } else if (arg.equals("-skip") && i + 1 < args.length) {
+        try {
+          GUI.setMaxPendingEvents(Math.max(Integer.parseInt(args[++i]), 0));
+        } catch (NumberFormatException e) {
+          System.err.println("Couldn't parse argument for -skip option");
+        }
+      } else if (arg.equals("-cache") && i + 1 < args.length) {
+        GameState.setCavernCache(new CavernCache(Paths.get(args[++i])));
+      } else if (Files.isDirectory(Paths.get(arg))) {
+        try (Stream<Path> files = Files.list(Paths.get(arg))) {
+          logs.addAll(files.filter((p) -> p.toString().endsWith(".rpl")).sorted()
+              .collect(Collectors.toList()));
+        }
+      } else {
+        logs.add(Paths.get(arg));
+      }
+    }
+    if (logs.isEmpty()) {
+      System.err.println(
+          "Usage: Replayer [-gui [-skip N]] [-cache DIR] <game log or directory>...");
+      return;
+    }
+
+    if (useGui) {
+      GameResult result = GameState.replay(GameLog.read(logs.get(0)), true);
+      System.out.println("Score : " + result.getScore());
+      return;
+    }
+
+    DecimalFormat df = new DecimalFormat("#.##");
+    System.out.println(String.format("%20s%10s%14s%14s%10s  %s", "seed", "moves",
+        "explore (ms)", "escape (ms)", "score", "outcome"));
+    long moves = 0;
+    long replayNanos = 0;
+    for (Path file : logs) {
+      GameLog log = GameLog.read(file);
+      Supplier<GameResult> replay = GameState.prepareReplay(log, false);
+      long start = System.nanoTime();
+      GameResult result = replay.get();
+      replayNanos += System.nanoTime() - start;
+      moves += log.getMoveCount();
+
+      String outcome = (result.getErrored() ? "errored"
+          : result.getEscapeSucceeded() ? "escaped"
+          : result.getExploreSucceeded() ? "explored" : "lost");
+      System.out.println(String.format("%20d%10d%14s%14s%10d  %s", log.getSeed(),
+          log.getMoveCount(), df.format(log.getExploreNanos() / 1e6),
+          df.format(log.getEscapeNanos() / 1e6), result.getScore(), outcome));
+    }
+    System.out.println("Games replayed   : " + logs.size());
+    System.out.println("Moves replayed   : " + moves);
+    System.out.println("Replay time (ms) : " + df.format(replayNanos / 1e6));
+    System.out.println("Moves per second : " + df.format(moves / (replayNanos / 1e9)));
+  }
+}
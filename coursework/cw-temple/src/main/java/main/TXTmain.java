@@ -1,12 +1,19 @@
 package main;
 
+import game.CavernCache;
+import game.GameResult;
 import game.GameState;
+import game.GameStats;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 /**
  * Runs the program via the text (console) interface.
@@ -29,15 +36,81 @@ public class TXTmain {
     
     Optional<Long> seed = Utilities.parseSeedArgs(args);
 
+    // -cache DIR loads seeded games' caverns from DIR (see CavernCorpus), storing
+    // any that are not there yet.
+    int cacheIndex = argList.indexOf("-cache");
+    if (cacheIndex >= 0 && cacheIndex + 1 < argList.size()) {
+      GameState.setCavernCache(new CavernCache(Paths.get(argList.get(cacheIndex + 1))));
+    }
+
+    // -stats measures the explorer's calls and prints a summary at the end.
+    GameStats stats = (argList.contains("-stats") ? new GameStats() : null);
+
+    // -p T runs the games as a headless tournament on T threads, with seeds seed,
+    // seed + 1, ..., -csv FILE also writes one line per game to FILE, and -rec DIR
+    // records each game to DIR/SEED.rpl for Replayer.
+    // Tournaments play the normal game only, so -size cannot be combined with -p.
+    int threadsIndex = argList.indexOf("-p");
+    if (threadsIndex >= 0 && argList.contains("-size")) {
+      System.err.println("The -p and -size options cannot be used together");
+      return;
+    }
+    if (threadsIndex >= 0) {
+      int threads = Runtime.getRuntime().availableProcessors();
+      try {
+        threads = Math.max(Integer.parseInt(argList.get(threadsIndex + 1)), 1);
+      } catch (Exception e) {
+        System.err.println("Couldn't parse argument for -p option");
+      }
+      long firstSeed = (seed.isPresent() ? seed.get() : new Random().nextLong());
+      Path logDir = null;
+      int recIndex = argList.indexOf("-rec");
+      if (recIndex >= 0 && recIndex + 1 < argList.size()) {
+        logDir = Files.createDirectories(Paths.get(argList.get(recIndex + 1)));
+      }
+      long start = System.nanoTime();
+      List<GameResult> results =
+          new Tournament(threads, logDir, stats).run(firstSeed, numTimesToRun);
+      Tournament.printSummary(results, System.nanoTime() - start);
+      if (stats != null) {
+        stats.print(System.out);
+      }
+
+      int csvIndex = argList.indexOf("-csv");
+      if (csvIndex >= 0 && csvIndex + 1 < argList.size()) {
+        Tournament.writeCsv(results, Paths.get(argList.get(csvIndex + 1)));
+      }
+      return;
+    }
+
+    // -size RxC plays in caverns of R rows and C columns (large-grid mode).
+    int rows = 0;
+    int cols = 0;
+    int sizeIndex = argList.indexOf("-size");
+    if (sizeIndex >= 0) {
+      try {
+        String[] size = argList.get(sizeIndex + 1).split("x");
+        rows = Integer.parseInt(size[0]);
+        cols = Integer.parseInt(size[1]);
+      } catch (Exception e) {
+        System.err.println("Couldn't parse argument for -size option");
+      }
+    }
+
     int totalScore = 0;
 
     for (int i = 0; i < numTimesToRun; i++) {
-      totalScore += GameState.runNewGame((seed.isPresent() ? seed.get() : 0), false);
+      long gameSeed = (seed.isPresent() ? seed.get() : 0);
+      totalScore += (rows > 0 ? GameState.runNewGame(gameSeed, rows, cols, stats)
+          : GameState.runNewGame(gameSeed, false, stats));
       System.out.println();
     }
 
     if (totalScore != 0) {
       System.out.println("Average score : " + totalScore / numTimesToRun);
     }
+    if (stats != null) {
+      stats.print(System.out);
+    }
   }
 }
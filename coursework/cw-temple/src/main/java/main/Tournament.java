@@ -0,0 +1,145 @@
+package main;
+
+import game.GameResult;
+import game.GameState;
+import game.GameStats;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Runs many seeded games concurrently without a GUI and summarises their results.
+ */
+public class Tournament {
+  private final ForkJoinPool pool;
+  /** The directory game logs are written to, or null if games are not recorded. */
+  private final Path logDir;
+  /** Where statistics on explorers' calls are added, or null if they are not measured. */
+  private final GameStats stats;
+
+  /**
+   * Constructor: a tournament that runs up to threads games at the same time.
+   * A tournament can be run only once.
+   */
+  public Tournament(int threads) {
+    this(threads, null);
+  }
+
+  /**
+   * Constructor: as Tournament(threads), but record each game to the file
+   * SEED.rpl in directory dir, if dir is not null.
+   */
+  public Tournament(int threads, Path dir) {
+    this(threads, dir, null);
+  }
+
+  /**
+   * Constructor: as Tournament(threads, dir), but also add statistics on the calls
+   * made by each game's explorer to sts, if sts is not null.
+   */
+  public Tournament(int threads, Path dir, GameStats sts) {
+    pool = new ForkJoinPool(Math.max(threads, 1));
+    logDir = dir;
+    stats = sts;
+  }
+
+  /**
+   * Run one game for each of the count seeds firstSeed, firstSeed + 1, ... (wrapping
+   * past Long.MAX_VALUE to Long.MIN_VALUE) and return the results, in seed order.
+   * Each game gets its own caverns and explorer, so results do not depend on how many
+   * games run concurrently.
+   */
+  public List<GameResult> run(long firstSeed, int count) {
+    try {
+      return pool.submit(() -> LongStream.range(0, count)
+          .parallel()
+          .mapToObj((i) -> runGame(firstSeed + i))
+          .collect(Collectors.toList())).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Tournament interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game could not be run", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Run the game with seed seed, recording and measuring it if this tournament
+   * records and measures games.
+   */
+  private GameResult runGame(long seed) {
+    if (logDir == null && stats == null) {
+      return GameState.runHeadlessGame(seed);
+    }
+    try {
+      return GameState.runHeadlessGame(seed,
+          (logDir == null ? null : logDir.resolve(seed + ".rpl")), stats);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Print a summary table of results on the console.
+   * wallNanos is the wall-clock time taken by the whole tournament.
+   */
+  public static void printSummary(List<GameResult> results, long wallNanos) {
+    DecimalFormat df = new DecimalFormat("#.##");
+    int n = results.size();
+    long explored = results.stream().filter(GameResult::getExploreSucceeded).count();
+    long escaped = results.stream().filter(GameResult::getEscapeSucceeded).count();
+    long errored = results.stream().filter(GameResult::getErrored).count();
+    double gameMillis = results.stream().mapToLong(GameResult::getNanos).sum() / 1e6;
+
+    System.out.println("Games            : " + n);
+    System.out.println("Explore succeeded: " + explored);
+    System.out.println("Escape succeeded : " + escaped);
+    System.out.println("Errored          : " + errored);
+    System.out.println("                   " + String.format("%12s%12s%12s", "min", "mean", "max"));
+    printRow("Score            : ", results.stream().mapToDouble(GameResult::getScore)
+        .summaryStatistics(), df);
+    printRow("Gold collected   : ", results.stream().mapToDouble(GameResult::getGold)
+        .summaryStatistics(), df);
+    printRow("Bonus multiplier : ", results.stream().mapToDouble(GameResult::getBonus)
+        .summaryStatistics(), df);
+    printRow("Game time (ms)   : ", results.stream().mapToDouble((r) -> r.getNanos() / 1e6)
+        .summaryStatistics(), df);
+    System.out.println("Wall time (ms)   : " + df.format(wallNanos / 1e6));
+    System.out.println("Speed-up         : " + df.format(gameMillis / (wallNanos / 1e6)));
+  }
+
+  /**
+   * Print one row of the summary table, labelled label.
+   */
+  private static void printRow(String label, DoubleSummaryStatistics stats, DecimalFormat df) {
+    System.out.println(label + String.format("%12s%12s%12s", df.format(stats.getMin()),
+        df.format(stats.getAverage()), df.format(stats.getMax())));
+  }
+
+  /**
+   * Write results to file as CSV, one line per game after a header line.
+   */
+  public static void writeCsv(List<GameResult> results, Path file) throws IOException {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      out.println("seed,score,gold,bonus,explored,escaped,errored,millis");
+      for (GameResult r : results) {
+        out.println(r.getSeed() + "," + r.getScore() + "," + r.getGold() + ","
+            + r.getBonus() + "," + r.getExploreSucceeded() + "," + r.getEscapeSucceeded() + ","
+            + r.getErrored() + "," + r.getNanos() / 1e6);
+      }
+    }
+  }
+}
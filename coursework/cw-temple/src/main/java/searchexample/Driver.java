@@ -40,5 +40,17 @@ public class Driver {
     System.out.println();
     System.out.println("BFS Traversal of a tree is ------------->");
     graph.bfs();
+    System.out.println();
+
+    //Traversals with a visitor: print depths, and stop as soon as F is reached
+    System.out.println("BFS Traversal with depths, up to F ------------->");
+    graph.bfs((node, depth) -> {
+      System.out.print(node.getLabel() + ":" + depth + " ");
+      return node != nodeF;
+    });
+    System.out.println();
+    TraversalEngine engine = ((GraphImpl) graph).freeze();
+    System.out.println("F reachable from B : " + engine.isReachable(nodeB, nodeF));
+    System.out.println("A reachable from B : " + engine.isReachable(nodeB, nodeA));
   }
 }
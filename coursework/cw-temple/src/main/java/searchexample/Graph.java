@@ -15,4 +15,12 @@ public interface Graph {
 
   //DFS traversal of a tree
   void dfs();
+
+  //BFS traversal from the root, calling visitor for each node reached;
+  //returns true iff the visitor ended it early
+  boolean bfs(Visitor visitor);
+
+  //DFS traversal from the root, calling visitor for each node reached;
+  //returns true iff the visitor ended it early
+  boolean dfs(Visitor visitor);
 }
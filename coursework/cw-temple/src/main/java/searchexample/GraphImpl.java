@@ -1,18 +1,16 @@
 package searchexample;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Queue;
-import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class GraphImpl implements Graph {
-  private final List nodes = new ArrayList();
+  private final List<Node> nodes = new ArrayList<>();
   private final Map<Node, List<Node>> adjMap = new ConcurrentHashMap<>();
   private Node rootNode;
+  //Traversals run over this copy of the graph (null after a change, until asked for)
+  private TraversalEngine engine;
 
   @Override
   public Node getRootNode() {
@@ -25,91 +23,58 @@ public class GraphImpl implements Graph {
   }
 
   @Override
-  public void addNode(final Node node) {
+  public synchronized void addNode(final Node node) {
     nodes.add(node);
+    engine = null;
   }
 
   //This method connects two nodes
   @Override
-  public void connectNode(final Node start, final Node end) {
+  public synchronized void connectNode(final Node start, final Node end) {
     List<Node> nodeList = adjMap.get(start);
     if (nodeList == null) {
       nodeList = new ArrayList<>();
     }
     adjMap.put(start, nodeList);
     nodeList.add(end);
+    engine = null;
   }
 
-  private Node getUnvisitedChildNode(final Node node) {
-    final List<Node> nodeList = adjMap.get(node);
-    if (nodeList != null) {
-      for (int i = 0; i < nodeList.size(); i++) {
-        final Node temp = nodeList.get(i);
-        if (!temp.isVisited()) {
-          return temp;
-        }
-      }
+  //Return an immutable copy of this graph that traversals (any number at once) can
+  //run over; it is made when first asked for after a change to the graph
+  public synchronized TraversalEngine freeze() {
+    if (engine == null) {
+      engine = new TraversalEngine(nodes, adjMap);
     }
-    return null;
+    return engine;
   }
 
   //BFS traversal of a tree
   @Override
   public void bfs() {
-    //BFS uses Queue data structure
-    final Queue<Node> queue = new LinkedList<>();
-    queue.add(this.rootNode);
-    printNode(this.rootNode);
-
-    rootNode.setVisited(true);
-
-    while (!queue.isEmpty()) {
-      final Node node = queue.remove();
-      Node child = getUnvisitedChildNode(node);
-      while (child != null) {
-        child.setVisited(true);
-        printNode(child);
-        queue.add(child);
-        child = getUnvisitedChildNode(node);
-      }
-    }
-
-    //Clear visited property of nodes
-    clearNodes();
+    bfs((node, depth) -> {
+      printNode(node);
+      return true;
+    });
   }
 
   //DFS traversal of a tree
   @Override
   public void dfs() {
-    //DFS uses Stack data structure
-    final Stack<Node> stack = new Stack<>();
-    stack.push(this.rootNode);
-    rootNode.setVisited(true);
-    printNode(rootNode);
-
-    while (!stack.isEmpty()) {
-      final Node node = stack.peek();
-      final Node child = getUnvisitedChildNode(node);
-      if (child == null) {
-        stack.pop();
-      } else {
-        child.setVisited(true);
-        printNode(child);
-        stack.push(child);
-      }
-    }
+    dfs((node, depth) -> {
+      printNode(node);
+      return true;
+    });
+  }
 
-    //Clear visited property of nodes
-    clearNodes();
+  @Override
+  public boolean bfs(final Visitor visitor) {
+    return freeze().bfs(this.rootNode, visitor);
   }
 
-  private void clearNodes() {
-    for (final Entry<Node, List<Node>> eMap : adjMap.entrySet()) {
-      final List<Node> list = eMap.getValue();
-      for (int i = 0; i < list.size(); i++) {
-        list.get(i).setVisited(false);
-      }
-    }
+  @Override
+  public boolean dfs(final Visitor visitor) {
+    return freeze().dfs(this.rootNode, visitor);
   }
 
   //Utility method for printing the node's label
@@ -0,0 +1,216 @@
+package searchexample;
+
+import game.ParallelBfs;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of the nodes and edges of a graph, which it can traverse
+ * breadth first or depth first, calling a Visitor for each node reached.
+ * All the state of a traversal (visited bitset, queue or stack, and a cursor into
+ * the children of each node on the stack) belongs to that traversal, so any number
+ * of traversals may run over one engine at the same time, and the nodes' own
+ * visited flags are never touched.
+ */
+public final class TraversalEngine {
+  private final Node[] nodes;
+  private final Map<Node, Integer> index;
+  //The children of nodes[i] are nodes[children[offsets[i]..offsets[i + 1] - 1]]
+  private final int[] offsets;
+  private final int[] children;
+  //Parallel search over the same arcs and their reverses (null until first asked for)
+  private volatile ParallelBfs parallel;
+
+  /**
+   * Constructor: an engine over the given nodes, where the children of each node
+   * are those of its entry in adjMap, in order. Nodes that appear only as children
+   * are included.
+   */
+  TraversalEngine(final List<Node> nodeList, final Map<Node, List<Node>> adjMap) {
+    this.index = new HashMap<>();
+    final List<Node> all = new ArrayList<>();
+    for (final Node node : nodeList) {
+      indexOf(node, all);
+    }
+    for (final Map.Entry<Node, List<Node>> entry : adjMap.entrySet()) {
+      indexOf(entry.getKey(), all);
+      for (final Node child : entry.getValue()) {
+        indexOf(child, all);
+      }
+    }
+    this.nodes = all.toArray(new Node[0]);
+
+    //Lay the children out by parent, keeping the order of each node's children
+    this.offsets = new int[nodes.length + 1];
+    for (final Map.Entry<Node, List<Node>> entry : adjMap.entrySet()) {
+      offsets[index.get(entry.getKey()) + 1] += entry.getValue().size();
+    }
+    for (int i = 0; i < nodes.length; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    this.children = new int[offsets[nodes.length]];
+    final int[] next = offsets.clone();
+    for (final Map.Entry<Node, List<Node>> entry : adjMap.entrySet()) {
+      final int from = index.get(entry.getKey());
+      for (final Node child : entry.getValue()) {
+        children[next[from]++] = index.get(child);
+      }
+    }
+  }
+
+  private int indexOf(final Node node, final List<Node> all) {
+    Integer i = index.get(node);
+    if (i == null) {
+      i = all.size();
+      index.put(node, i);
+      all.add(node);
+    }
+    return i;
+  }
+
+  /**
+   * Return the number of nodes.
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * Traverse the nodes reachable from root breadth first, calling visitor for each.
+   * Return true iff the visitor ended the traversal early.
+   * Throw an IllegalArgumentException if root is not a node of this engine.
+   */
+  public boolean bfs(final Node root, final Visitor visitor) {
+    final int start = ordinalOf(root);
+    final BitSet visited = new BitSet(nodes.length);
+    final int[] queue = new int[nodes.length];
+    final int[] depth = new int[nodes.length];
+    int tail = 0;
+    queue[tail++] = start;
+    visited.set(start);
+    if (!visitor.visit(root, 0)) {
+      return true;
+    }
+
+    for (int head = 0; head < tail; head++) {
+      final int node = queue[head];
+      for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+        final int child = children[k];
+        if (!visited.get(child)) {
+          visited.set(child);
+          depth[child] = depth[node] + 1;
+          if (!visitor.visit(nodes[child], depth[child])) {
+            return true;
+          }
+          queue[tail++] = child;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Traverse the nodes reachable from root depth first, calling visitor for each
+   * as it is first reached (preorder). Return true iff the visitor ended the
+   * traversal early.
+   * Throw an IllegalArgumentException if root is not a node of this engine.
+   */
+  public boolean dfs(final Node root, final Visitor visitor) {
+    final int start = ordinalOf(root);
+    final BitSet visited = new BitSet(nodes.length);
+    final int[] stack = new int[nodes.length];
+    //cursor[d] is the next child of stack[d] to look at
+    final int[] cursor = new int[nodes.length];
+    int top = 0;
+    stack[top] = start;
+    cursor[top] = offsets[start];
+    visited.set(start);
+    if (!visitor.visit(root, 0)) {
+      return true;
+    }
+
+    while (top >= 0) {
+      final int node = stack[top];
+      int k = cursor[top];
+      while (k < offsets[node + 1] && visited.get(children[k])) {
+        k++;
+      }
+      if (k == offsets[node + 1]) {
+        top--;
+      } else {
+        cursor[top] = k + 1;
+        final int child = children[k];
+        visited.set(child);
+        if (!visitor.visit(nodes[child], top + 1)) {
+          return true;
+        }
+        top++;
+        stack[top] = child;
+        cursor[top] = offsets[child];
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the number of edges on a shortest path from root to each node reachable
+   * from it, found by a parallel breadth-first search on the common ForkJoinPool.
+   * This pays off on graphs of many thousands of nodes.
+   * Throw an IllegalArgumentException if root is not a node of this engine.
+   */
+  public Map<Node, Integer> hopsFrom(final Node root) {
+    final int[] hops = parallelBfs().hops(ordinalOf(root));
+    final Map<Node, Integer> result = new HashMap<>();
+    for (int i = 0; i < hops.length; i++) {
+      if (hops[i] != ParallelBfs.UNREACHED) {
+        result.put(nodes[i], hops[i]);
+      }
+    }
+    return result;
+  }
+
+  private ParallelBfs parallelBfs() {
+    ParallelBfs bfs = parallel;
+    if (bfs == null) {
+      //The parents of each node, for the bottom-up levels of the search
+      final int[] inOffsets = new int[nodes.length + 1];
+      for (final int child : children) {
+        inOffsets[child + 1]++;
+      }
+      for (int i = 0; i < nodes.length; i++) {
+        inOffsets[i + 1] += inOffsets[i];
+      }
+      final int[] parents = new int[children.length];
+      final int[] next = inOffsets.clone();
+      for (int i = 0; i < nodes.length; i++) {
+        for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+          parents[next[children[k]]++] = i;
+        }
+      }
+      bfs = new ParallelBfs(offsets, children, inOffsets, parents);
+      parallel = bfs;
+    }
+    return bfs;
+  }
+
+  /**
+   * Return true iff there is a path from start to goal.
+   * Throw an IllegalArgumentException if either is not a node of this engine.
+   */
+  public boolean isReachable(final Node start, final Node goal) {
+    ordinalOf(goal);
+    return bfs(start, (node, depth) -> node != goal);
+  }
+
+  private int ordinalOf(final Node node) {
+    final Integer i = index.get(node);
+    if (i == null) {
+      throw new IllegalArgumentException("Node " + node.getLabel() + " is not in the graph");
+    }
+    return i;
+  }
+}
@@ -0,0 +1,9 @@
+package searchexample;
+
+//Callback for the nodes reached by a traversal (see TraversalEngine)
+@FunctionalInterface
+public interface Visitor {
+  //Called once for each node reached, in traversal order, with its depth in the
+  //traversal tree (0 for the root). Return false to end the traversal here.
+  boolean visit(Node node, int depth);
+}
@@ -0,0 +1,421 @@
+package student;
+
+import game.Edge;
+import game.EscapeState;
+import game.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An instance plans and follows a route out of a cavern that collects as much gold
+ * as it can in the time remaining, for use by any escape strategy.
+ *
+ * <p>The cavern is copied once into arrays (nodes by index, arcs in compressed
+ * rows), and the distance exit(v) from every node v to the exit is computed once,
+ * with a single run of Dijkstra's algorithm from the exit. Planning is then a greedy
+ * orienteering heuristic. From the current position, a bounded best-first search
+ * finds every node v that can be visited on the way out in the time remaining
+ * (d(here, v) + exit(v) at most getTimeRemaining()); it prunes all other nodes, and
+ * settles at most a given number of nodes. Each search costs time in proportion to
+ * the nodes it reaches, not to the size of the cavern: it resets and scans only the
+ * nodes the search before it reached. Each node found is scored by the gold on
+ * its shortest path from here divided by d(here, v) raised to some exponent. The
+ * planner walks to the best node, picking up gold on the way, and repeats; when no
+ * node with gold is found, or the planning budget is spent, it follows the exit's
+ * shortest-path tree out.</p>
+ *
+ * <p>The planning budget is a number of nodes settled, so by default a planner
+ * always plans the same route from the same state, however loaded the machine is.
+ * A time budget can be set as well, at the cost of that.</p>
+ *
+ * <p>Small exponents favour rich targets and large ones near targets, and which
+ * does best depends on the cavern, so a plan is made for each of EXPONENTS (as the
+ * budget allows, each getting an equal share of it) and the one collecting the
+ * most gold is kept. Plans are made
+ * entirely in advance (the cavern holds no surprises while escaping), and every
+ * plan reaches the exit in time.</p>
+ */
+public final class EscapePlanner {
+  /** A time budget that never runs out. */
+  public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+  /** The default bound on the nodes settled by one search for a target. */
+  public static final int DEFAULT_MAX_SETTLED = 1 << 16;
+  /** The default bound on the nodes settled by all the searches of a plan. */
+  public static final long DEFAULT_MAX_WORK = 1L << 24;
+  /** The exponents of distance tried when scoring targets, in order. */
+  private static final double[] EXPONENTS = {1, 1.5, 2, 3};
+
+  private static final int NONE = -1;
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  private final EscapeState state;
+  private final long budgetNanos;
+  private final int maxSettled;
+  private final long maxWork;
+
+  private final Node[] nodes;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+  /** The gold that will be left on each node, as the plan is made. */
+  private final int[] gold;
+  private final int start;
+  private final int exit;
+  /** toExit[v] is the distance from v to the exit. */
+  private final int[] toExit;
+  /** towardExit[v] is the node after v on a shortest path to the exit (NONE at the exit). */
+  private final int[] towardExit;
+
+  /** The planned route, excluding the start, or null if it is not planned yet. */
+  private List<Node> route;
+  private int routeGold;
+  private int routeTime;
+
+  /**
+   * Constructor: a planner for escaping from state, with the default planning
+   * budget, which has no time limit.
+   */
+  public EscapePlanner(EscapeState state) {
+    this(state, NO_TIME_LIMIT, DEFAULT_MAX_SETTLED, DEFAULT_MAX_WORK);
+  }
+
+  /**
+   * Constructor: as EscapePlanner(state, budgetNanos, maxSettled, DEFAULT_MAX_WORK).
+   */
+  public EscapePlanner(EscapeState state, long budgetNanos, int maxSettled) {
+    this(state, budgetNanos, maxSettled, DEFAULT_MAX_WORK);
+  }
+
+  /**
+   * Constructor: a planner for escaping from state that stops looking for gold once
+   * it has planned for budgetNanos nanoseconds (NO_TIME_LIMIT for no limit) or
+   * settled maxWork nodes in all, and settles at most maxSettled nodes in each search
+   * for the next target. Smaller values plan faster, usually for less gold; the plan
+   * always escapes in time, however small they are. Unless budgetNanos is
+   * NO_TIME_LIMIT, the route can depend on how fast planning runs.
+   * Throw an IllegalArgumentException if budgetNanos is negative, or maxSettled or
+   * maxWork is less than 1.
+   */
+  public EscapePlanner(EscapeState state, long budgetNanos, int maxSettled, long maxWork) {
+    if (budgetNanos < 0 || maxSettled < 1 || maxWork < 1) {
+      throw new IllegalArgumentException("Bad planning budget");
+    }
+    this.state = state;
+    this.budgetNanos = budgetNanos;
+    this.maxSettled = maxSettled;
+    this.maxWork = maxWork;
+
+    nodes = state.getVertices().toArray(new Node[0]);
+    Map<Node, Integer> index = new HashMap<>(2 * nodes.length);
+    for (int i = 0; i < nodes.length; i++) {
+      index.put(nodes[i], i);
+    }
+    offsets = new int[nodes.length + 1];
+    gold = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      offsets[i + 1] = offsets[i] + nodes[i].getExits().size();
+      gold[i] = nodes[i].getTile().getGold();
+    }
+    targets = new int[offsets[nodes.length]];
+    weights = new int[targets.length];
+    for (int i = 0; i < nodes.length; i++) {
+      int k = offsets[i];
+      for (Edge e : nodes[i].getExits()) {
+        targets[k] = index.get(e.getOther(nodes[i]));
+        weights[k] = e.length();
+        k++;
+      }
+    }
+    start = index.get(state.getCurrentNode());
+    exit = index.get(state.getExit());
+
+    toExit = new int[nodes.length];
+    towardExit = new int[nodes.length];
+    new Search(toExit, towardExit).run(exit, INFINITY, INFINITY);
+  }
+
+  /**
+   * Return the planned route out, from the node after the current one to the exit
+   * (empty if already at the exit). The route is planned on the first call.
+   */
+  public List<Node> getRoute() {
+    if (route == null) {
+      plan();
+    }
+    return route;
+  }
+
+  /**
+   * Return the gold that the planned route collects, planning it if need be.
+   */
+  public int getRouteGold() {
+    getRoute();
+    return routeGold;
+  }
+
+  /**
+   * Return the time that the planned route takes, planning it if need be.
+   */
+  public int getRouteTime() {
+    getRoute();
+    return routeTime;
+  }
+
+  /**
+   * Follow the planned route to the exit, picking up all gold along it,
+   * planning the route first if need be.
+   */
+  public void escape() {
+    pickUpGold();
+    for (Node n : getRoute()) {
+      state.moveTo(n);
+      pickUpGold();
+    }
+  }
+
+  /**
+   * Pick up the gold on the current node, if there is any.
+   */
+  private void pickUpGold() {
+    if (state.getCurrentNode().getTile().getGold() > 0) {
+      state.pickUpGold();
+    }
+  }
+
+  /**
+   * Plan the route: the best of the routes planned with each of EXPONENTS, as far
+   * as the planning budget allows.
+   */
+  private void plan() {
+    long start = System.nanoTime();
+    // Past start + budgetNanos, or never if that overflows.
+    long deadline = (budgetNanos == NO_TIME_LIMIT || start + budgetNanos < start
+        ? NO_TIME_LIMIT : start + budgetNanos);
+    int[] initialGold = gold.clone();
+    List<Node> bestRoute = null;
+    int bestGold = -1;
+    int bestTime = 0;
+    for (double exponent : EXPONENTS) {
+      System.arraycopy(initialGold, 0, gold, 0, gold.length);
+      plan(exponent, deadline, maxWork / EXPONENTS.length);
+      if (routeGold > bestGold) {
+        bestRoute = route;
+        bestGold = routeGold;
+        bestTime = routeTime;
+      }
+      if (pastDeadline(deadline)) {
+        break;
+      }
+    }
+    route = bestRoute;
+    routeGold = bestGold;
+    routeTime = bestTime;
+  }
+
+  /**
+   * Return true iff time deadline (as from System.nanoTime(), or NO_TIME_LIMIT) has
+   * passed. Without a time limit, the clock is not read.
+   */
+  private static boolean pastDeadline(long deadline) {
+    return deadline != NO_TIME_LIMIT && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Plan a route, scoring targets with distance raised to exponent, and make it
+   * the route. Stop looking for targets at time deadline (as from System.nanoTime(),
+   * or NO_TIME_LIMIT), or once work nodes have been settled.
+   */
+  private void plan(double exponent, long deadline, long work) {
+    List<Integer> path = new ArrayList<>();
+    int here = start;
+    int timeLeft = state.getTimeRemaining();
+    routeGold = take(here);
+
+    int[] dist = new int[nodes.length];
+    int[] parent = new int[nodes.length];
+    Search search = new Search(dist, parent);
+    long settled = 0;
+    while (settled < work && !pastDeadline(deadline)) {
+      int settleLimit = (int) Math.min(maxSettled, work - settled);
+      int target = search.bestTarget(here, timeLeft, exponent, settleLimit);
+      settled += search.settled;
+      if (target == NONE) {
+        break;
+      }
+      int len = path.size();
+      for (int v = target; v != here; v = parent[v]) {
+        path.add(v);
+      }
+      Collections.reverse(path.subList(len, path.size()));
+      for (int i = len; i < path.size(); i++) {
+        routeGold += take(path.get(i));
+      }
+      timeLeft -= dist[target];
+      here = target;
+    }
+
+    for (int v = towardExit[here]; v != NONE; v = towardExit[v]) {
+      path.add(v);
+      routeGold += take(v);
+    }
+    timeLeft -= toExit[here];
+    routeTime = state.getTimeRemaining() - timeLeft;
+
+    route = new ArrayList<>(path.size());
+    for (int v : path) {
+      route.add(nodes[v]);
+    }
+  }
+
+  /**
+   * Return the gold left on node v, and plan for it to be taken.
+   */
+  private int take(int v) {
+    int g = gold[v];
+    gold[v] = 0;
+    return g;
+  }
+
+  /**
+   * An instance runs Dijkstra's algorithm over the planner's arrays, writing the
+   * distances and parents into arrays of its own, with a binary heap of
+   * (distance, node) pairs packed into longs (stale pairs are skipped when polled).
+   * The nodes a run reaches are listed, so that the next run resets only those.
+   */
+  private final class Search {
+    private final int[] dist;
+    private final int[] parent;
+    /** pathGold[v] is the gold on the shortest path found to v, excluding its start. */
+    private final int[] pathGold;
+    private long[] heap = new long[64];
+    private int heapSize;
+    /** reached[0..reachedCount-1] are the nodes the last run gave a distance. */
+    private int[] reached = new int[64];
+    private int reachedCount;
+    /** The number of nodes the last run settled. */
+    private int settled;
+
+    /**
+     * Constructor: a search that writes distances into d and parents into p.
+     */
+    private Search(int[] d, int[] p) {
+      dist = d;
+      parent = p;
+      pathGold = new int[d.length];
+      Arrays.fill(dist, INFINITY);
+      Arrays.fill(parent, NONE);
+    }
+
+    /**
+     * Search from source, settling at most settleLimit nodes, and not going beyond
+     * nodes whose distance from source plus toExit exceeds reach (each of these is
+     * INFINITY when unbounded). Nodes not reached get distance INFINITY and parent
+     * NONE. Return the number of nodes settled.
+     */
+    private int run(int source, int reach, int settleLimit) {
+      for (int i = 0; i < reachedCount; i++) {
+        dist[reached[i]] = INFINITY;
+        parent[reached[i]] = NONE;
+      }
+      reachedCount = 0;
+      reach(source, 0, NONE);
+      pathGold[source] = 0;
+      heapSize = 0;
+      push(source, 0);
+      settled = 0;
+      while (heapSize > 0 && settled < settleLimit) {
+        long top = pop();
+        int u = (int) top;
+        if ((int) (top >>> 32) != dist[u]) {
+          continue;
+        }
+        settled++;
+        for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+          int v = targets[k];
+          int d = dist[u] + weights[k];
+          if (d < dist[v] && (reach == INFINITY || (long) d + toExit[v] <= reach)) {
+            reach(v, d, u);
+            pathGold[v] = pathGold[u] + gold[v];
+            push(v, d);
+          }
+        }
+      }
+      return settled;
+    }
+
+    /**
+     * Give v distance d and parent p, listing it as reached if it was not yet.
+     */
+    private void reach(int v, int d, int p) {
+      if (dist[v] == INFINITY) {
+        if (reachedCount == reached.length) {
+          reached = Arrays.copyOf(reached, 2 * reachedCount);
+        }
+        reached[reachedCount++] = v;
+      }
+      dist[v] = d;
+      parent[v] = p;
+    }
+
+    /**
+     * Return the best node to go to from here, settling at most settleLimit nodes,
+     * from which the exit can still be reached in time timeLeft: the one with the
+     * most gold on its shortest path per unit of distance raised to exponent.
+     * Return NONE if there is no gold in reach.
+     */
+    private int bestTarget(int here, int timeLeft, double exponent, int settleLimit) {
+      run(here, timeLeft, settleLimit);
+      int best = NONE;
+      double bestValue = 0;
+      for (int i = 0; i < reachedCount; i++) {
+        int v = reached[i];
+        if (pathGold[v] == 0 || v == here) {
+          continue;
+        }
+        double value = (double) pathGold[v] / Math.pow(dist[v], exponent);
+        if (value > bestValue) {
+          best = v;
+          bestValue = value;
+        }
+      }
+      return best;
+    }
+
+    private void push(int v, int d) {
+      if (heapSize == heap.length) {
+        heap = Arrays.copyOf(heap, 2 * heapSize);
+      }
+      long entry = ((long) d << 32) | v;
+      int i = heapSize++;
+      while (i > 0 && heap[(i - 1) >>> 1] > entry) {
+        heap[i] = heap[(i - 1) >>> 1];
+        i = (i - 1) >>> 1;
+      }
+      heap[i] = entry;
+    }
+
+    private long pop() {
+      long top = heap[0];
+      long last = heap[--heapSize];
+      int i = 0;
+      while (2 * i + 1 < heapSize) {
+        int c = 2 * i + 1;
+        if (c + 1 < heapSize && heap[c + 1] < heap[c]) {
+          c++;
+        }
+        if (heap[c] >= last) {
+          break;
+        }
+        heap[i] = heap[c];
+        i = c;
+      }
+      heap[i] = last;
+      return top;
+    }
+  }
+}
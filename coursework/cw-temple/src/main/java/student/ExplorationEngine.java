@@ -0,0 +1,106 @@
+package student;
+
+import game.ExplorationState;
+import game.NodeStatus;
+
+import java.util.Arrays;
+
+/**
+ * An instance explores a cavern to the orb, for use by any exploration strategy,
+ * knowing nothing but what an ExplorationState tells it: node ids and distances
+ * along the grid to the orb.
+ *
+ * <p>The search is a depth-first search that always goes on to the unvisited
+ * neighbour nearest the orb (along the grid), and backs up one node at a time when
+ * there is none. Ids are numbered densely by an IdIndex as nodes are visited, so a
+ * node has been visited iff its id is in the index, and the path back to the entrance
+ * is a stack of ints. Neighbours are read into one reused buffer, so that a step
+ * allocates nothing (apart from the index and stack doubling now and then), and a
+ * cavern of millions of cells costs a few tens of bytes per visited node.</p>
+ */
+public final class ExplorationEngine {
+  private final ExplorationState state;
+  private final IdIndex visited;
+  /** path[0..depth-1] are the indices of the nodes from the entrance to the current one. */
+  private int[] path;
+  private int depth;
+  private final NodeStatus[] neighbours = new NodeStatus[ExplorationState.MAX_NEIGHBOURS];
+  private long steps;
+
+  /**
+   * Constructor: an engine for exploring from state.
+   */
+  public ExplorationEngine(ExplorationState state) {
+    this(state, 0);
+  }
+
+  /**
+   * Constructor: an engine for exploring from state, with room for expectedNodes
+   * nodes before its tables must grow.
+   * Throw an IllegalArgumentException if expectedNodes is negative or too large.
+   */
+  public ExplorationEngine(ExplorationState state, int expectedNodes) {
+    this.state = state;
+    visited = new IdIndex(expectedNodes);
+    path = new int[Math.max(expectedNodes, 16)];
+  }
+
+  /**
+   * Move to the orb, and return when standing on it.
+   * Throw an IllegalStateException if every node that can be reached has been
+   * visited without finding it.
+   */
+  public void explore() {
+    while (state.getDistanceToTarget() != 0) {
+      int here = visited.add(state.getCurrentLocation());
+      int nearest = nearestUnvisited();
+      long next;
+      if (nearest >= 0) {
+        if (depth == path.length) {
+          path = Arrays.copyOf(path, 2 * depth);
+        }
+        path[depth++] = here;
+        next = neighbours[nearest].getId();
+      } else if (depth > 0) {
+        next = visited.idAt(path[--depth]);
+      } else {
+        throw new IllegalStateException("The orb cannot be reached from the entrance");
+      }
+      state.moveTo(next);
+      steps++;
+    }
+  }
+
+  /**
+   * Return the number of different nodes visited so far, excluding the current one
+   * if it is the orb.
+   */
+  public int getVisitedCount() {
+    return visited.size();
+  }
+
+  /**
+   * Return the number of moves made so far.
+   */
+  public long getSteps() {
+    return steps;
+  }
+
+  /**
+   * Read the neighbours of the current node into neighbours, and return the position
+   * there of the unvisited one nearest the orb, or -1 if every one has been visited.
+   */
+  private int nearestUnvisited() {
+    int count = state.getNeighbours(neighbours);
+    int best = -1;
+    int bestDistance = Integer.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      NodeStatus ns = neighbours[i];
+      if (ns.getDistanceToTarget() < bestDistance && visited.indexOf(ns.getId()) == IdIndex.NONE) {
+        best = i;
+        bestDistance = ns.getDistanceToTarget();
+      }
+    }
+    return best;
+  }
+}
@@ -36,7 +36,7 @@ public class Explorer {
    * @param state the information available at the current state
    */
   public void explore(ExplorationState state) {
-    //TODO:
+    new ExplorationEngine(state).explore();
   }
 
   /**
@@ -64,6 +64,6 @@ public class Explorer {
    * @param state the information available at the current state
    */
   public void escape(EscapeState state) {
-    //TODO: Escape from the cavern before time runs out
+    new EscapePlanner(state).escape();
   }
 }
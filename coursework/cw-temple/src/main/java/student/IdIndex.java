@@ -0,0 +1,127 @@
+package student;
+
+import java.util.Arrays;
+
+/**
+ * An instance numbers node ids densely: the first id added gets index 0, the next
+ * index 1, and so on, so that anything known about a node can be kept in arrays
+ * indexed by int rather than in maps keyed by boxed Longs.
+ *
+ * <p>The ids are kept in order of index in an array, and an open-addressing hash
+ * table with linear probing maps each id to its index. A slot of the table holds
+ * index + 1, with 0 for an empty slot, so that every long can be an id. The table is
+ * at most half full, and both arrays double when needed, so adding an id allocates
+ * nothing except now and then.</p>
+ */
+public final class IdIndex {
+  /** Returned by indexOf for an id that has not been added. */
+  public static final int NONE = -1;
+  private static final int MIN_CAPACITY = 16;
+  /** The golden ratio in 64 bits, for Fibonacci hashing. */
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+  /** ids[i] is the id with index i, for i < size. */
+  private long[] ids;
+  private int size;
+  /** slots[h] is 1 + the index of the id hashed (or probed) to h, or 0 if empty. */
+  private int[] slots;
+  /** slots.length is 1 << bits. */
+  private int bits;
+
+  /**
+   * Constructor: an empty index.
+   */
+  public IdIndex() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Constructor: an empty index with room for expected ids before it must grow.
+   * Throw an IllegalArgumentException if expected is negative or too large.
+   */
+  public IdIndex(int expected) {
+    if (expected < 0 || expected > 1 << 29) {
+      throw new IllegalArgumentException("Bad expected size: " + expected);
+    }
+    int capacity = Math.max(expected, MIN_CAPACITY);
+    ids = new long[capacity];
+    bits = 32 - Integer.numberOfLeadingZeros(2 * capacity - 1);
+    slots = new int[1 << bits];
+  }
+
+  /**
+   * Return the number of ids added.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return the id with index i.
+   * Throw an IndexOutOfBoundsException if there is no such index.
+   */
+  public long idAt(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("No index " + i + " in " + size + " ids");
+    }
+    return ids[i];
+  }
+
+  /**
+   * Return the index of id, or NONE if it has not been added.
+   */
+  public int indexOf(long id) {
+    int mask = slots.length - 1;
+    for (int h = hash(id); slots[h] != 0; h = (h + 1) & mask) {
+      if (ids[slots[h] - 1] == id) {
+        return slots[h] - 1;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Return the index of id, adding it (with the next index) if it is not there yet.
+   */
+  public int add(long id) {
+    int mask = slots.length - 1;
+    int h = hash(id);
+    for (; slots[h] != 0; h = (h + 1) & mask) {
+      if (ids[slots[h] - 1] == id) {
+        return slots[h] - 1;
+      }
+    }
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, 2 * size);
+    }
+    ids[size] = id;
+    slots[h] = ++size;
+    if (2 * size > slots.length) {
+      rehash();
+    }
+    return size - 1;
+  }
+
+  /**
+   * Return the slot where the probe for id starts.
+   */
+  private int hash(long id) {
+    return (int) ((id * GOLDEN) >>> (Long.SIZE - bits));
+  }
+
+  /**
+   * Double the table and put every id back in it.
+   */
+  private void rehash() {
+    bits++;
+    slots = new int[1 << bits];
+    int mask = slots.length - 1;
+    for (int i = 0; i < size; i++) {
+      int h = hash(ids[i]);
+      while (slots[h] != 0) {
+        h = (h + 1) & mask;
+      }
+      slots[h] = i + 1;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests that CavernFile decodes what it encodes, and rejects damaged files
+ * with an IOException.
+ */
+public class CavernFileTest {
+  @Test
+  public void testRoundTripKeepsCaverns() throws IOException {
+    for (long seed = 1; seed <= 20; seed++) {
+      Pair<Cavern, Cavern> caverns = GameState.digCaverns(seed);
+      for (Cavern c : new Cavern[] {caverns.getFirst(), caverns.getSecond()}) {
+        Cavern decoded = CavernFile.decode(CavernFile.encode(c), "test");
+        assertEquals(c.serialize(), decoded.serialize());
+        assertEquals(c.getTarget().getId(), decoded.getTarget().getId());
+        assertEquals(c.getEntrance().getId(), decoded.getEntrance().getId());
+        assertEquals(c.minPathLengthToTarget(c.getEntrance()),
+            decoded.minPathLengthToTarget(decoded.getEntrance()));
+      }
+    }
+  }
+
+  @Test
+  public void testTruncatedFileThrows() throws IOException {
+    ByteBuffer buf = CavernFile.encode(GameState.digCaverns(1).getFirst());
+    for (int length : new int[] {0, 10, buf.limit() / 2, buf.limit() - 1}) {
+      ByteBuffer cut = buf.duplicate();
+      cut.limit(length);
+      assertRejected(cut);
+    }
+  }
+
+  @Test
+  public void testBadMagicOrVersionThrows() throws IOException {
+    ByteBuffer buf = CavernFile.encode(GameState.digCaverns(1).getFirst());
+    assertRejected(copyWith(buf, 0, 0));
+    assertRejected(copyWith(buf, Integer.BYTES, CavernFile.VERSION + 1));
+  }
+
+  @Test
+  public void testBadTargetThrows() throws IOException {
+    ByteBuffer buf = CavernFile.encode(GameState.digCaverns(1).getFirst());
+    int n = buf.getInt(4 * Integer.BYTES);
+    assertRejected(copyWith(buf, 6 * Integer.BYTES, n));
+  }
+
+  @Test
+  public void testNoEntranceThrows() throws IOException {
+    Cavern cavern = GameState.digCaverns(1).getFirst();
+    ByteBuffer buf = CavernFile.encode(cavern);
+    // The type is the last byte of each tile: turn the entrance into floor.
+    int tileBytes = Long.BYTES + 3 * Integer.BYTES + 1;
+    int typeAt = 7 * Integer.BYTES + cavern.getEntrance().getOrdinal() * tileBytes
+        + tileBytes - 1;
+    ByteBuffer copy = copy(buf);
+    copy.put(typeAt, (byte) Tile.Type.FLOOR.ordinal());
+    assertRejected(copy);
+  }
+
+  /**
+   * Return a copy of buf.
+   */
+  private static ByteBuffer copy(ByteBuffer buf) {
+    ByteBuffer copy = ByteBuffer.allocate(buf.limit());
+    copy.put(buf.duplicate()).flip();
+    return copy;
+  }
+
+  /**
+   * Return a copy of buf with the int at index replaced by value.
+   */
+  private static ByteBuffer copyWith(ByteBuffer buf, int index, int value) {
+    ByteBuffer copy = copy(buf);
+    copy.putInt(index, value);
+    return copy;
+  }
+
+  /**
+   * Assert that decoding buf throws an IOException.
+   */
+  private static void assertRejected(ByteBuffer buf) {
+    try {
+      CavernFile.decode(buf, "test");
+      fail("Decoded a damaged cavern file");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
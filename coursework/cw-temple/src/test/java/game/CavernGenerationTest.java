@@ -0,0 +1,134 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+import org.junit.Test;
+
+/**
+ * Tests that the generation modes of Cavern dig caverns from the same distribution,
+ * and that explore caverns keep their orb far enough from the entrance.
+ *
+ * <p>Escape caverns are dug on small grids with a cell in the middle required to be
+ * floor, which rejects many candidates. The caverns of REPRODUCIBLE and FAST, dug
+ * with different seeds, are compared by a two-sample chi-square test on the number
+ * of open cells and on the number of hops from the required cell (where the orb was)
+ * to the entrance. The seeds are fixed, so the test is deterministic; the threshold
+ * is the 0.1% point of the chi-square distribution.</p>
+ */
+public class CavernGenerationTest {
+  private static final int ROWS = 8;
+  private static final int COLS = 12;
+  private static final int SAMPLES = 400;
+  /** The smallest count a bin of the chi-square test may have. */
+  private static final int MIN_BIN = 10;
+
+  @Test
+  public void testFastAndReproducibleDigSameOpenCellCounts() {
+    assertSameDistribution(Cavern::numOpenTiles);
+  }
+
+  @Test
+  public void testFastAndReproducibleDigSameOrbDistances() {
+    assertSameDistribution((cavern) -> cavern.getHopCounts(cavern.getEntrance())
+        .hopsTo(cavern.getNodeAt(ROWS / 2, COLS / 2)));
+  }
+
+  @Test
+  public void testEscapeCavernHasRequiredFloor() {
+    for (Cavern.Generation g : Cavern.Generation.values()) {
+      for (long seed = 1; seed <= 50; seed++) {
+        Cavern cavern = Cavern.digEscapeCavern(ROWS, COLS, ROWS / 2, COLS / 2,
+            new Random(seed), g);
+        assertEquals(Tile.Type.FLOOR, cavern.getTileAt(ROWS / 2, COLS / 2).getType());
+      }
+    }
+  }
+
+  @Test
+  public void testExploreCavernOrbIsFarEnough() {
+    for (long seed = 1; seed <= 200; seed++) {
+      Random rand = new Random(seed);
+      int rows = 8 + rand.nextInt(18);
+      int cols = 12 + rand.nextInt(29);
+      Cavern cavern = Cavern.digExploreCavern(rows, cols, rand);
+      assertTrue("seed " + seed,
+          cavern.minPathLengthToTarget(cavern.getEntrance()) >= (rows + cols) / 2);
+    }
+  }
+
+  /**
+   * Assert that stat has the same distribution over the escape caverns dug by
+   * REPRODUCIBLE and by FAST.
+   */
+  private static void assertSameDistribution(ToIntFunction<Cavern> stat) {
+    List<Integer> a = sample(Cavern.Generation.REPRODUCIBLE, 1, stat);
+    List<Integer> b = sample(Cavern.Generation.FAST, 1 + SAMPLES, stat);
+
+    // Count the values of each sample, merging values (in order) into bins that
+    // hold at least MIN_BIN values of the two samples together.
+    TreeMap<Integer, int[]> counts = new TreeMap<>();
+    for (int v : a) {
+      counts.computeIfAbsent(v, (k) -> new int[2])[0]++;
+    }
+    for (int v : b) {
+      counts.computeIfAbsent(v, (k) -> new int[2])[1]++;
+    }
+    List<int[]> bins = new ArrayList<>();
+    int[] bin = new int[2];
+    for (int[] c : counts.values()) {
+      bin[0] += c[0];
+      bin[1] += c[1];
+      if (bin[0] + bin[1] >= MIN_BIN) {
+        bins.add(bin);
+        bin = new int[2];
+      }
+    }
+    if (bins.isEmpty()) {
+      bins.add(bin);
+    } else {
+      bins.get(bins.size() - 1)[0] += bin[0];
+      bins.get(bins.size() - 1)[1] += bin[1];
+    }
+
+    // With samples of equal size, chi2 = sum over bins of (a - b)^2 / (a + b).
+    double chi2 = 0;
+    for (int[] c : bins) {
+      chi2 += (double) (c[0] - c[1]) * (c[0] - c[1]) / (c[0] + c[1]);
+    }
+    int df = bins.size() - 1;
+    assertTrue("chi2 = " + chi2 + " on " + df + " df", df == 0 || chi2 < criticalValue(df));
+  }
+
+  /**
+   * Return stat of the escape caverns dug with generation g from seeds
+   * first, first + 1, ..., first + SAMPLES - 1.
+   */
+  private static List<Integer> sample(Cavern.Generation g, long first,
+                                      ToIntFunction<Cavern> stat) {
+    List<Integer> values = new ArrayList<>(SAMPLES);
+    for (long seed = first; seed < first + SAMPLES; seed++) {
+      values.add(stat.applyAsInt(
+          Cavern.digEscapeCavern(ROWS, COLS, ROWS / 2, COLS / 2, new Random(seed), g)));
+    }
+    return values;
+  }
+
+  /**
+   * Return (approximately) the value exceeded with probability 0.001 by the
+   * chi-square distribution with df degrees of freedom, by the Wilson-Hilferty
+   * approximation.
+   */
+  private static double criticalValue(int df) {
+    double z = 3.090;
+    double h = 2.0 / (9 * df);
+    double t = 1 - h + z * Math.sqrt(h);
+    return df * t * t * t;
+  }
+}
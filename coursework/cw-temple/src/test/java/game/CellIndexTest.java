@@ -0,0 +1,85 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the rank (wallsBefore) and select (ordinalAt) of CellIndex against a plain
+ * array of the grid, on grids whose sizes do and do not fill whole words.
+ */
+public class CellIndexTest {
+  @Test
+  public void testRandomGridsMatchReference() {
+    int[][] sizes = {{1, 1}, {1, 64}, {1, 65}, {8, 8}, {7, 13}, {25, 40}, {100, 129}};
+    Random rand = new Random(1);
+    for (int[] size : sizes) {
+      for (double density : new double[] {0, 0.1, 0.5, 0.9, 1}) {
+        checkGrid(size[0], size[1], density, rand);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCellGivenTwiceThrows() {
+    new CellIndex(2, 2, new int[] {1, 3, 1}, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCellOutsideGridThrows() {
+    new CellIndex(2, 2, new int[] {4}, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGridTooLargeThrows() {
+    new CellIndex(1 << 16, 1 << 16, new int[0], 0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutsideGridLookupThrows() {
+    new CellIndex(3, 4, new int[] {0}, 1).ordinalAt(0, 4);
+  }
+
+  /**
+   * Check a CellIndex of a grid of size (rows, cols) in which each cell is open with
+   * probability density, with its open cells given in random order.
+   */
+  private static void checkGrid(int rows, int cols, double density, Random rand) {
+    int[] ordinal = new int[rows * cols];
+    Arrays.fill(ordinal, CellIndex.WALL);
+    int[] cellOf = new int[rows * cols];
+    int n = 0;
+    for (int cell = 0; cell < rows * cols; cell++) {
+      if (rand.nextDouble() < density) {
+        cellOf[n++] = cell;
+      }
+    }
+    // Shuffle, so that ordinals are not in row-major order.
+    for (int i = n - 1; i > 0; i--) {
+      int j = rand.nextInt(i + 1);
+      int t = cellOf[i];
+      cellOf[i] = cellOf[j];
+      cellOf[j] = t;
+    }
+    for (int o = 0; o < n; o++) {
+      ordinal[cellOf[o]] = o;
+    }
+
+    CellIndex index = new CellIndex(rows, cols, cellOf, n);
+    String grid = rows + "x" + cols + " at " + density;
+    assertEquals(grid, n, index.openCount());
+    int walls = 0;
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < cols; c++) {
+        assertEquals(grid, walls, index.wallsBefore(r, c));
+        assertEquals(grid, ordinal[r * cols + c], index.ordinalAt(r, c));
+        if (ordinal[r * cols + c] == CellIndex.WALL) {
+          walls++;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that game logs read back what was written, and that replaying the log of a
+ * game gives the game's result.
+ */
+public class GameLogTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsReadBackInOrder() throws IOException {
+    Path file = folder.newFile().toPath();
+    long[] ids = {0, 1, 127, 128, 300, Long.MAX_VALUE};
+    try (GameLog.Writer writer = new GameLog.Writer(file, -42)) {
+      writer.record(GameLog.EXPLORE);
+      for (long id : ids) {
+        writer.recordMove(id);
+      }
+      writer.record(GameLog.ESCAPE);
+      writer.record(GameLog.GOLD);
+      writer.record(GameLog.OUT_OF_TIME);
+    }
+
+    GameLog log = GameLog.read(file);
+    assertEquals(-42, log.getSeed());
+    assertEquals(ids.length, log.getMoveCount());
+    GameLog.Cursor c = log.cursor();
+    long nanos = 0;
+    assertTrue(c.next());
+    assertEquals(GameLog.EXPLORE, c.tag());
+    nanos += c.nanos();
+    for (long id : ids) {
+      assertTrue(c.next());
+      assertEquals(GameLog.MOVE, c.tag());
+      assertEquals(id, c.id());
+      nanos += c.nanos();
+    }
+    assertEquals(GameLog.ESCAPE, c.peekTag());
+    assertTrue(c.next());
+    nanos += c.nanos();
+    // The ESCAPE record ends the explore phase.
+    assertEquals(nanos, log.getExploreNanos());
+    long escape = 0;
+    for (byte tag : new byte[] {GameLog.GOLD, GameLog.OUT_OF_TIME}) {
+      assertTrue(c.next());
+      assertEquals(tag, c.tag());
+      escape += c.nanos();
+    }
+    assertFalse(c.next());
+    assertEquals(GameLog.END, c.tag());
+    assertEquals(escape + c.nanos(), log.getEscapeNanos());
+    assertFalse(c.next());
+  }
+
+  @Test
+  public void testReplayGivesRecordedResult() throws IOException {
+    for (long seed = 1; seed <= 5; seed++) {
+      Path file = folder.newFile().toPath();
+      GameResult played = GameState.runHeadlessGame(seed, file);
+      GameLog log = GameLog.read(file);
+      GameResult replayed = GameState.replay(log, false);
+      assertEquals(seed, log.getSeed());
+      assertEquals(played.getScore(), replayed.getScore());
+      assertEquals(played.getGold(), replayed.getGold());
+      assertEquals(played.getEscapeSucceeded(), replayed.getEscapeSucceeded());
+      assertEquals(log.getExploreNanos() + log.getEscapeNanos(), replayed.getNanos());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotALogThrows() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+    GameLog.read(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedLogThrows() throws IOException {
+    Path file = folder.newFile().toPath();
+    try (GameLog.Writer writer = new GameLog.Writer(file, 1)) {
+      writer.record(GameLog.EXPLORE);
+      writer.recordMove(1000);
+    }
+    byte[] data = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(data, data.length - 2));
+    GameLog.read(file);
+  }
+}
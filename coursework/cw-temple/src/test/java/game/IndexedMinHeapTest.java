@@ -0,0 +1,147 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests IndexedMinHeap against a plain array of priorities, for several arities.
+ */
+public class IndexedMinHeapTest {
+  private static final int CAPACITY = 500;
+  private static final int[] ARITIES = {2, 3, 4, 8};
+
+  @Test
+  public void testPollReturnsElementsInPriorityOrder() {
+    for (int d : ARITIES) {
+      Random rand = new Random(d);
+      IndexedMinHeap heap = new IndexedMinHeap(CAPACITY, d);
+      for (int e = 0; e < CAPACITY; e++) {
+        heap.add(e, rand.nextInt(100));
+      }
+      assertEquals(CAPACITY, heap.size());
+      int last = Integer.MIN_VALUE;
+      while (!heap.isEmpty()) {
+        int p = heap.peekPriority();
+        assertTrue(p >= last);
+        int e = heap.poll();
+        assertFalse(heap.contains(e));
+        last = p;
+      }
+    }
+  }
+
+  @Test
+  public void testRandomOperationsMatchReference() {
+    for (int d : ARITIES) {
+      Random rand = new Random(10 + d);
+      IndexedMinHeap heap = new IndexedMinHeap(CAPACITY, d);
+      // priority[e] is the priority of e, or -1 if e is not in the heap.
+      int[] priority = new int[CAPACITY];
+      Arrays.fill(priority, -1);
+      int size = 0;
+      for (int step = 0; step < 20000; step++) {
+        int e = rand.nextInt(CAPACITY);
+        int p = rand.nextInt(1000);
+        switch (rand.nextInt(4)) {
+          case 0:
+            if (priority[e] < 0) {
+              heap.add(e, p);
+              priority[e] = p;
+              size++;
+            }
+            break;
+          case 1:
+            if (priority[e] >= 0) {
+              heap.changePriority(e, p);
+              priority[e] = p;
+            }
+            break;
+          case 2:
+            boolean changed = heap.addOrDecrease(e, p);
+            assertEquals(priority[e] < 0 || p < priority[e], changed);
+            if (priority[e] < 0) {
+              size++;
+            }
+            if (changed) {
+              priority[e] = p;
+            }
+            break;
+          default:
+            if (size > 0) {
+              int min = heap.peekPriority();
+              int polled = heap.poll();
+              assertEquals(minimum(priority), min);
+              assertEquals(min, priority[polled]);
+              priority[polled] = -1;
+              size--;
+            }
+        }
+        assertEquals(size, heap.size());
+        assertEquals(priority[e] >= 0, heap.contains(e));
+      }
+    }
+  }
+
+  @Test
+  public void testAddOrDecreaseIgnoresLargerPriority() {
+    IndexedMinHeap heap = new IndexedMinHeap(4);
+    assertTrue(heap.addOrDecrease(1, 5));
+    assertFalse(heap.addOrDecrease(1, 7));
+    assertFalse(heap.addOrDecrease(1, 5));
+    assertTrue(heap.addOrDecrease(1, 2));
+    assertEquals(1, heap.size());
+    assertEquals(2, heap.peekPriority());
+  }
+
+  @Test
+  public void testClearEmptiesForReuse() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    for (int e = 0; e < 10; e++) {
+      heap.add(e, 10 - e);
+    }
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    for (int e = 0; e < 10; e++) {
+      assertFalse(heap.contains(e));
+    }
+    heap.add(3, 1);
+    assertEquals(3, heap.poll());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddTwiceThrows() {
+    IndexedMinHeap heap = new IndexedMinHeap(4);
+    heap.add(2, 1);
+    heap.add(2, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChangePriorityOfAbsentThrows() {
+    new IndexedMinHeap(4).changePriority(2, 1);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testPollEmptyThrows() {
+    new IndexedMinHeap(4).poll();
+  }
+
+  /**
+   * Return the smallest non-negative value in priority.
+   */
+  private static int minimum(int[] priority) {
+    int min = Integer.MAX_VALUE;
+    for (int p : priority) {
+      if (p >= 0 && p < min) {
+        min = p;
+      }
+    }
+    return min;
+  }
+}
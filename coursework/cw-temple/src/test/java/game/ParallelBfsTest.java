@@ -0,0 +1,207 @@
+package game;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import searchexample.GraphImpl;
+import searchexample.NodeImpl;
+import searchexample.TraversalEngine;
+
+/**
+ * Tests ParallelBfs against a plain queue-based BFS, on graphs whose levels are
+ * searched sequentially, top-down in chunks and bottom-up, and tests
+ * TraversalEngine.hopsFrom, which is built on it, against the depths of bfs().
+ */
+public class ParallelBfsTest {
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void startPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public static void stopPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testCavernMatchesQueueBfs() {
+    for (long seed = 1; seed <= 5; seed++) {
+      CompactGraph g = GameState.digCaverns(seed).getFirst().getAdjacency();
+      int[] offsets = new int[g.size() + 1];
+      int[] targets = new int[g.endArc(g.size() - 1)];
+      for (int o = 0; o < g.size(); o++) {
+        offsets[o + 1] = g.endArc(o);
+        for (int k = g.firstArc(o); k < g.endArc(o); k++) {
+          targets[k] = g.target(k);
+        }
+      }
+      for (int root : new int[] {0, g.size() / 2, g.size() - 1}) {
+        assertArrayEquals(queueBfs(offsets, targets, root), g.parallelBfs().hops(root, pool));
+      }
+    }
+  }
+
+  @Test
+  public void testDenseDirectedGraphMatchesQueueBfs() {
+    // A dense random part, whose middle levels hold thousands of nodes (top-down in
+    // chunks, then bottom-up), with a long chain after it (back to top-down).
+    Random rand = new Random(1);
+    int dense = 60000;
+    int chain = 3000;
+    int n = dense + chain;
+    int[][] out = new int[n][];
+    for (int u = 0; u < dense; u++) {
+      out[u] = new int[1 + rand.nextInt(16)];
+      for (int i = 0; i < out[u].length; i++) {
+        out[u][i] = rand.nextInt(dense);
+      }
+    }
+    out[dense - 1] = new int[] {dense};
+    for (int u = dense; u < n; u++) {
+      out[u] = (u + 1 < n ? new int[] {u + 1} : new int[0]);
+    }
+    checkGraph(out, new int[] {0, 1, dense / 2, n - 1});
+  }
+
+  @Test
+  public void testUnreachableNodesAreUnreached() {
+    // Two components, and a node with arcs into the first that nothing reaches.
+    int[][] out = {{1, 2}, {2}, {0}, {4}, {3}, {0, 3}};
+    checkGraph(out, new int[] {0, 3, 5});
+    int[] hops = bfsOf(out).hops(0, pool);
+    assertEquals(ParallelBfs.UNREACHED, hops[3]);
+    assertEquals(ParallelBfs.UNREACHED, hops[5]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRootThrows() {
+    bfsOf(new int[][] {{1}, {0}}).hops(-1, pool);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRootPastEndThrows() {
+    bfsOf(new int[][] {{1}, {0}}).hops(2, pool);
+  }
+
+  @Test
+  public void testHopsFromMatchesBfsDepths() {
+    // A small directed graph with a cycle, a self-loop, a repeated arc and nodes
+    // that reach the rest only against the arcs.
+    NodeImpl[] nodes = new NodeImpl[8];
+    GraphImpl graph = new GraphImpl();
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new NodeImpl((char) ('A' + i));
+      graph.addNode(nodes[i]);
+    }
+    int[][] arcs = {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {3, 4}, {4, 1}, {4, 4}, {2, 5}, {2, 5},
+        {6, 0}, {7, 6}};
+    for (int[] arc : arcs) {
+      graph.connectNode(nodes[arc[0]], nodes[arc[1]]);
+    }
+    TraversalEngine engine = graph.freeze();
+    for (NodeImpl root : nodes) {
+      Map<searchexample.Node, Integer> depths = new HashMap<>();
+      engine.bfs(root, (node, depth) -> {
+        depths.put(node, depth);
+        return true;
+      });
+      assertEquals("from " + root.getLabel(), depths, engine.hopsFrom(root));
+    }
+  }
+
+  /**
+   * Check the hops from each of roots in the graph whose arcs leaving u go to out[u]
+   * against a queue-based BFS.
+   */
+  private static void checkGraph(int[][] out, int[] roots) {
+    ParallelBfs bfs = bfsOf(out);
+    int[] offsets = offsets(out);
+    int[] targets = targets(out, offsets);
+    for (int root : roots) {
+      assertArrayEquals("from " + root, queueBfs(offsets, targets, root), bfs.hops(root, pool));
+    }
+  }
+
+  /**
+   * Return a search over the graph whose arcs leaving u go to out[u], with its
+   * incoming arcs worked out from them.
+   */
+  private static ParallelBfs bfsOf(int[][] out) {
+    int n = out.length;
+    int[] offsets = offsets(out);
+    int[] targets = targets(out, offsets);
+    int[] inOffsets = new int[n + 1];
+    for (int v : targets) {
+      inOffsets[v + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      inOffsets[v + 1] += inOffsets[v];
+    }
+    int[] inTargets = new int[targets.length];
+    int[] next = inOffsets.clone();
+    for (int u = 0; u < n; u++) {
+      for (int v : out[u]) {
+        inTargets[next[v]++] = u;
+      }
+    }
+    return new ParallelBfs(offsets, targets, inOffsets, inTargets);
+  }
+
+  /**
+   * Return the CSR offsets of the graph whose arcs leaving u go to out[u].
+   */
+  private static int[] offsets(int[][] out) {
+    int[] offsets = new int[out.length + 1];
+    for (int u = 0; u < out.length; u++) {
+      offsets[u + 1] = offsets[u] + out[u].length;
+    }
+    return offsets;
+  }
+
+  /**
+   * Return the CSR targets of the graph whose arcs leaving u go to out[u].
+   */
+  private static int[] targets(int[][] out, int[] offsets) {
+    int[] targets = new int[offsets[out.length]];
+    for (int u = 0; u < out.length; u++) {
+      System.arraycopy(out[u], 0, targets, offsets[u], out[u].length);
+    }
+    return targets;
+  }
+
+  /**
+   * Return the hops from root to each node of the graph in CSR form (offsets,
+   * targets), or ParallelBfs.UNREACHED, by a plain queue-based BFS.
+   */
+  private static int[] queueBfs(int[] offsets, int[] targets, int root) {
+    int[] hops = new int[offsets.length - 1];
+    Arrays.fill(hops, ParallelBfs.UNREACHED);
+    hops[root] = 0;
+    Queue<Integer> queue = new ArrayDeque<>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      int u = queue.remove();
+      for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+        if (hops[targets[k]] == ParallelBfs.UNREACHED) {
+          hops[targets[k]] = hops[u] + 1;
+          queue.add(targets[k]);
+        }
+      }
+    }
+    return hops;
+  }
+}
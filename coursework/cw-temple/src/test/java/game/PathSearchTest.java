@@ -0,0 +1,78 @@
+package game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that every PathSearch finds paths as short as the distances of a
+ * ShortestPathTree, and that the paths it returns are real paths of that length.
+ */
+public class PathSearchTest {
+  @Test
+  public void testSearchesMatchShortestPathTree() {
+    for (long seed = 1; seed <= 10; seed++) {
+      Random rand = new Random(seed);
+      for (Cavern cavern : caverns(seed)) {
+        CompactGraph graph = cavern.getAdjacency();
+        Node[] nodes = cavern.getGraph().toArray(new Node[0]);
+        for (int i = 0; i < 20; i++) {
+          Node start = nodes[rand.nextInt(nodes.length)];
+          Node end = nodes[rand.nextInt(nodes.length)];
+          int expected = new ShortestPathTree(graph, end.getOrdinal()).distanceTo(start);
+          for (PathSearch search : PathSearch.values()) {
+            ShortestPath path = cavern.shortestPath(start, end, search);
+            assertEquals(search + " seed " + seed, expected, path.getLength());
+            assertIsPath(path, start, end);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPathToSelfIsEmpty() {
+    Cavern cavern = GameState.digCaverns(1).getFirst();
+    Node entrance = cavern.getEntrance();
+    for (PathSearch search : PathSearch.values()) {
+      ShortestPath path = cavern.shortestPath(entrance, entrance, search);
+      assertEquals(0, path.getLength());
+      assertEquals(1, path.getNodes().size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNodeOfOtherCavernThrows() {
+    Pair<Cavern, Cavern> caverns = GameState.digCaverns(1);
+    caverns.getFirst().shortestPath(caverns.getFirst().getEntrance(),
+        caverns.getSecond().getEntrance(), PathSearch.A_STAR);
+  }
+
+  /**
+   * Return the explore and escape caverns of seed.
+   */
+  private static Cavern[] caverns(long seed) {
+    Pair<Cavern, Cavern> caverns = GameState.digCaverns(seed);
+    return new Cavern[] {caverns.getFirst(), caverns.getSecond()};
+  }
+
+  /**
+   * Assert that path goes from start to end along edges whose lengths add up
+   * to its length.
+   */
+  private static void assertIsPath(ShortestPath path, Node start, Node end) {
+    List<Node> nodes = path.getNodes();
+    assertEquals(start, nodes.get(0));
+    assertEquals(end, nodes.get(nodes.size() - 1));
+    int length = 0;
+    for (int i = 1; i < nodes.size(); i++) {
+      assertTrue(nodes.get(i - 1).getNeighbours().contains(nodes.get(i)));
+      length += nodes.get(i - 1).getEdge(nodes.get(i)).length();
+    }
+    assertEquals(path.getLength(), length);
+  }
+}
@@ -0,0 +1,120 @@
+package searchexample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+//Tests traversals of the graph of Driver, with arcs A->B, A->C, A->D, B->E, B->F, C->F
+public class TraversalEngineTest {
+  private GraphImpl graph;
+  private Node nodeA;
+  private Node nodeB;
+  private Node nodeF;
+
+  @Before
+  public void setUp() {
+    graph = new GraphImpl();
+    final Node[] nodes = new Node[6];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new NodeImpl((char) ('A' + i));
+      graph.addNode(nodes[i]);
+    }
+    nodeA = nodes[0];
+    nodeB = nodes[1];
+    nodeF = nodes[5];
+    graph.setRootNode(nodeA);
+    graph.connectNode(nodeA, nodeB);
+    graph.connectNode(nodeA, nodes[2]);
+    graph.connectNode(nodeA, nodes[3]);
+    graph.connectNode(nodeB, nodes[4]);
+    graph.connectNode(nodeB, nodeF);
+    graph.connectNode(nodes[2], nodeF);
+  }
+
+  @Test
+  public void testBfsOrderAndDepths() {
+    final StringBuilder order = new StringBuilder();
+    assertFalse(graph.bfs((node, depth) -> {
+      order.append(node.getLabel()).append(':').append(depth).append(' ');
+      return true;
+    }));
+    assertEquals("A:0 B:1 C:1 D:1 E:2 F:2 ", order.toString());
+  }
+
+  @Test
+  public void testDfsOrderAndDepths() {
+    final StringBuilder order = new StringBuilder();
+    assertFalse(graph.dfs((node, depth) -> {
+      order.append(node.getLabel()).append(':').append(depth).append(' ');
+      return true;
+    }));
+    assertEquals("A:0 B:1 E:2 F:2 C:1 D:1 ", order.toString());
+  }
+
+  @Test
+  public void testEarlyTerminationVisitsNothingLater() {
+    final StringBuilder bfsOrder = new StringBuilder();
+    assertTrue(graph.bfs((node, depth) -> {
+      bfsOrder.append(node.getLabel());
+      return node != nodeB;
+    }));
+    assertEquals("AB", bfsOrder.toString());
+
+    final StringBuilder dfsOrder = new StringBuilder();
+    assertTrue(graph.dfs((node, depth) -> {
+      dfsOrder.append(node.getLabel());
+      return node != nodeF;
+    }));
+    assertEquals("ABEF", dfsOrder.toString());
+
+    //Stopping at the root visits nothing else
+    final StringBuilder rootOnly = new StringBuilder();
+    assertTrue(graph.bfs((node, depth) -> {
+      rootOnly.append(node.getLabel());
+      return false;
+    }));
+    assertEquals("A", rootOnly.toString());
+  }
+
+  @Test
+  public void testIsReachableFollowsArcDirection() {
+    final TraversalEngine engine = graph.freeze();
+    assertTrue(engine.isReachable(nodeA, nodeF));
+    assertFalse(engine.isReachable(nodeF, nodeA));
+    assertTrue(engine.isReachable(nodeB, nodeF));
+    assertFalse(engine.isReachable(nodeB, nodeA));
+    assertTrue(engine.isReachable(nodeF, nodeF));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRootNotInGraphThrows() {
+    graph.freeze().bfs(new NodeImpl('Z'), (node, depth) -> true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGoalNotInGraphThrows() {
+    graph.freeze().isReachable(nodeA, new NodeImpl('Z'));
+  }
+
+  @Test
+  public void testFreezeIsRemadeAfterChange() {
+    final TraversalEngine before = graph.freeze();
+    assertSame(before, graph.freeze());
+    graph.connectNode(nodeF, nodeA);
+    final TraversalEngine after = graph.freeze();
+    assertNotSame(before, after);
+    //The old engine keeps the graph as it was, and the new one has the new arc
+    assertFalse(before.isReachable(nodeF, nodeA));
+    assertTrue(after.isReachable(nodeF, nodeA));
+
+    final Node nodeG = new NodeImpl('G');
+    graph.addNode(nodeG);
+    assertNotSame(after, graph.freeze());
+    assertEquals(7, graph.freeze().size());
+  }
+}
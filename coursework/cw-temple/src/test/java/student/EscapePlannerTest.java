@@ -0,0 +1,193 @@
+package student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import game.Cavern;
+import game.EscapeState;
+import game.Node;
+import game.PathSearch;
+import game.Tile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests that every route EscapePlanner plans reaches the exit in time and collects
+ * the gold it claims, however small the planning budget, and that the default
+ * planner plans the same route whatever else is running.
+ */
+public class EscapePlannerTest {
+  private static final int SEEDS = 20;
+  private static final int[] MAX_SETTLED = {1, 7, EscapePlanner.DEFAULT_MAX_SETTLED};
+  private static final long[] MAX_WORK = {1, 7, EscapePlanner.DEFAULT_MAX_WORK};
+
+  @Test
+  public void testEveryPlanEscapesInTime() {
+    for (long seed = 1; seed <= SEEDS; seed++) {
+      for (boolean tight : new boolean[] {true, false}) {
+        for (int maxSettled : MAX_SETTLED) {
+          for (long maxWork : MAX_WORK) {
+            String what = "seed " + seed + (tight ? " tight" : "") + " maxSettled "
+                + maxSettled + " maxWork " + maxWork;
+            CavernState state = escapeState(seed, tight);
+            EscapePlanner planner =
+                new EscapePlanner(state, EscapePlanner.NO_TIME_LIMIT, maxSettled, maxWork);
+            checkPlan(what, state, planner);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDefaultPlanDoesNotDependOnLoad() throws Exception {
+    List<List<Long>> alone = new ArrayList<>();
+    for (long seed = 1; seed <= SEEDS; seed++) {
+      alone.add(routeIds(seed));
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<Long>>> loaded = new ArrayList<>();
+      for (long seed = 1; seed <= SEEDS; seed++) {
+        long s = seed;
+        loaded.add(pool.submit(() -> routeIds(s)));
+      }
+      for (int i = 0; i < SEEDS; i++) {
+        assertEquals("seed " + (i + 1), alone.get(i), loaded.get(i).get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Check that the route of planner, which plans from state, is a chain of adjacent
+   * nodes from the current node to the exit that takes no longer than the time
+   * remaining and collects the gold on its distinct nodes; then follow it.
+   */
+  private static void checkPlan(String what, CavernState state, EscapePlanner planner) {
+    List<Node> route = planner.getRoute();
+    assertTrue(what, planner.getRouteTime() <= state.getTimeRemaining());
+    Node here = state.getCurrentNode();
+    Set<Node> seen = new HashSet<>();
+    seen.add(here);
+    int gold = here.getTile().getGold();
+    int time = 0;
+    for (Node n : route) {
+      assertTrue(what, here.getNeighbours().contains(n));
+      time += here.getEdge(n).length();
+      if (seen.add(n)) {
+        gold += n.getTile().getGold();
+      }
+      here = n;
+    }
+    assertEquals(what, state.getExit(), here);
+    assertEquals(what, planner.getRouteTime(), time);
+    assertEquals(what, planner.getRouteGold(), gold);
+
+    int timeRemaining = state.getTimeRemaining();
+    planner.escape();
+    assertEquals(what, state.getExit(), state.getCurrentNode());
+    assertEquals(what, timeRemaining - time, state.getTimeRemaining());
+    assertEquals(what, gold, state.goldCollected);
+  }
+
+  /**
+   * Return the ids of the nodes of the route planned by the default planner in the
+   * escape cavern of seed.
+   */
+  private static List<Long> routeIds(long seed) {
+    List<Long> ids = new ArrayList<>();
+    for (Node n : new EscapePlanner(escapeState(seed, false)).getRoute()) {
+      ids.add(n.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * Return the state of an escape from where the orb was in the caverns generated
+   * from seed, with just enough time to take the shortest path out if tight is true,
+   * and otherwise with as much extra time as the game gives.
+   */
+  private static CavernState escapeState(long seed, boolean tight) {
+    Random rand = new Random(seed);
+    int rows = 8 + rand.nextInt(18);
+    int cols = 12 + rand.nextInt(29);
+    Tile orb = Cavern.digExploreCavern(rows, cols, rand).getTarget().getTile();
+    Cavern cavern = Cavern.digEscapeCavern(rows, cols, orb.getRow(), orb.getColumn(), rand);
+    Node start = cavern.getNodeAt(orb.getRow(), orb.getColumn());
+    int shortest = cavern.shortestPathToTarget(start, PathSearch.DIJKSTRA).getLength();
+    int extra = (tight ? 0
+        : (int) (0.3 * (Cavern.MAX_EDGE_WEIGHT + 1) * cavern.numOpenTiles() / 2));
+    return new CavernState(cavern, start, shortest + extra);
+  }
+
+  /**
+   * An escape from a cavern, which checks every move as the game does.
+   */
+  private static final class CavernState implements EscapeState {
+    private final Cavern cavern;
+    private Node position;
+    private int timeRemaining;
+    private int goldCollected;
+
+    /**
+     * Constructor: an escape from start in cavern c, with time t.
+     */
+    private CavernState(Cavern c, Node start, int t) {
+      cavern = c;
+      position = start;
+      timeRemaining = t;
+    }
+
+    @Override
+    public Node getCurrentNode() {
+      return position;
+    }
+
+    @Override
+    public Node getExit() {
+      return cavern.getTarget();
+    }
+
+    @Override
+    public Collection<Node> getVertices() {
+      return cavern.getGraph();
+    }
+
+    @Override
+    public void moveTo(Node n) {
+      if (!position.getNeighbours().contains(n)) {
+        throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+      }
+      timeRemaining -= position.getEdge(n).length();
+      if (timeRemaining < 0) {
+        throw new IllegalStateException("Out of time");
+      }
+      position = n;
+    }
+
+    @Override
+    public void pickUpGold() {
+      if (position.getTile().getGold() <= 0) {
+        throw new IllegalStateException("pickUpGold: Error, no gold on this tile");
+      }
+      goldCollected += position.getTile().takeGold();
+    }
+
+    @Override
+    public int getTimeRemaining() {
+      return timeRemaining;
+    }
+  }
+}
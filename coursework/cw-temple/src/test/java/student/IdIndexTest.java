@@ -0,0 +1,80 @@
+package student;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that IdIndex numbers ids densely in order of addition, keeping every index
+ * as it grows and rehashes.
+ */
+public class IdIndexTest {
+  @Test
+  public void testGrowthKeepsIndices() {
+    // Start small, so that both arrays grow and the table rehashes many times.
+    IdIndex index = new IdIndex(0);
+    Map<Long, Integer> expected = new HashMap<>();
+    Random rand = new Random(1);
+    for (int step = 0; step < 100000; step++) {
+      // Reuse some ids, and draw others from all over the range of long.
+      long id = (rand.nextInt(4) == 0 && !expected.isEmpty()
+          ? index.idAt(rand.nextInt(index.size())) : rand.nextLong());
+      Integer old = expected.get(id);
+      int i = index.add(id);
+      if (old == null) {
+        assertEquals(expected.size(), i);
+        expected.put(id, i);
+      } else {
+        assertEquals((int) old, i);
+      }
+      assertEquals(expected.size(), index.size());
+    }
+    for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+      assertEquals((int) e.getValue(), index.indexOf(e.getKey()));
+      assertEquals((long) e.getKey(), index.idAt(e.getValue()));
+    }
+  }
+
+  @Test
+  public void testCollidingIdsKeepIndices() {
+    // Multiples of a large power of two collide in the low bits.
+    IdIndex index = new IdIndex();
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i, index.add((long) i << 40));
+    }
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i, index.indexOf((long) i << 40));
+    }
+    assertEquals(IdIndex.NONE, index.indexOf(5000L << 40));
+  }
+
+  @Test
+  public void testExtremeIds() {
+    IdIndex index = new IdIndex();
+    long[] ids = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(IdIndex.NONE, index.indexOf(ids[i]));
+      assertEquals(i, index.add(ids[i]));
+    }
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(i, index.indexOf(ids[i]));
+      assertEquals(ids[i], index.idAt(i));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIdAtPastSizeThrows() {
+    IdIndex index = new IdIndex();
+    index.add(7);
+    index.idAt(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeExpectedThrows() {
+    new IdIndex(-1);
+  }
+}